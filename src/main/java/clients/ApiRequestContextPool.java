@@ -0,0 +1,119 @@
+package clients;
+
+import com.microsoft.playwright.APIRequest.NewContextOptions;
+import com.microsoft.playwright.APIRequestContext;
+import com.microsoft.playwright.Playwright;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import loggers.FileLogger;
+
+/**
+ * Pool of Playwright API Request contexts bound to a single Playwright instance.
+ *
+ * <p>Contexts are keyed by base URL, timeout and default headers so that requests sharing the same
+ * settings reuse the same context (and its connections). Playwright objects are not thread safe, so
+ * a pool must only be used by the thread which owns its Playwright instance.
+ */
+public class ApiRequestContextPool {
+
+  private static final AtomicLong created = new AtomicLong();
+  private static final AtomicLong reused = new AtomicLong();
+  private final Playwright playwright;
+  private final Map<ContextKey, PooledContext> contexts = new HashMap<>();
+
+  public ApiRequestContextPool(Playwright playwright) {
+    this.playwright = playwright;
+  }
+
+  /**
+   * Returns a pooled context for the given settings, creating one if none exists.
+   *
+   * @param baseUrl        The base URL of the API.
+   * @param timeout        The request timeout in milliseconds.
+   * @param defaultHeaders Headers sent with every request made through the context.
+   * @return The API Request context.
+   */
+  public APIRequestContext acquire(
+      String baseUrl,
+      int timeout,
+      Map<String, String> defaultHeaders) {
+    var key = new ContextKey(baseUrl, timeout, Map.copyOf(defaultHeaders));
+    var pooled = contexts.get(key);
+    if (pooled != null) {
+      reused.incrementAndGet();
+      pooled.lastUsed = System.nanoTime();
+      return pooled.context;
+    }
+
+    FileLogger.instance().get().fine(
+        String.format("Created API Request Context for URL : %s%n", baseUrl));
+    var context = playwright.request().newContext(
+        new NewContextOptions()
+            .setBaseURL(baseUrl)
+            .setExtraHTTPHeaders(key.headers())
+            .setTimeout(timeout)
+            .setIgnoreHTTPSErrors(true));
+    created.incrementAndGet();
+    contexts.put(key, new PooledContext(context));
+    return context;
+  }
+
+  /**
+   * Disposes contexts which have not been used within the idle timeout.
+   *
+   * @param idleTimeoutMs Idle time in milliseconds after which a context is disposed.
+   */
+  public void evictIdle(long idleTimeoutMs) {
+    var now = System.nanoTime();
+    contexts.values().removeIf(pooled -> {
+      if ((now - pooled.lastUsed) / 1000_000 >= idleTimeoutMs) {
+        pooled.context.dispose();
+        return true;
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Disposes all pooled contexts.
+   */
+  public void dispose() {
+    contexts.values().forEach(pooled -> pooled.context.dispose());
+    contexts.clear();
+  }
+
+  /**
+   * Number of contexts created across all pools.
+   *
+   * @return The created count.
+   */
+  public static long created() {
+    return created.get();
+  }
+
+  /**
+   * Number of times an existing context was reused across all pools.
+   *
+   * @return The reused count.
+   */
+  public static long reused() {
+    return reused.get();
+  }
+
+  private record ContextKey(String baseUrl, int timeout, Map<String, String> headers) {
+
+  }
+
+  private static class PooledContext {
+
+    private final APIRequestContext context;
+    private long lastUsed;
+
+    private PooledContext(APIRequestContext context) {
+      this.context = context;
+      this.lastUsed = System.nanoTime();
+    }
+  }
+
+}
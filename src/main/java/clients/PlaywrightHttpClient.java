@@ -1,207 +1,331 @@
 package clients;
 
-import static java.util.stream.Collectors.toList;
-
-import com.microsoft.playwright.APIRequest.NewContextOptions;
-import com.microsoft.playwright.APIRequestContext;
-import com.microsoft.playwright.APIResponse;
-import com.microsoft.playwright.options.RequestOptions;
 import com.smartbear.har.builder.HarEntryBuilder;
 import com.smartbear.har.builder.HarRequestBuilder;
 import com.smartbear.har.builder.HarResponseBuilder;
+import com.smartbear.har.builder.HarTimingsBuilder;
+import com.smartbear.har.model.HarCache;
 import com.smartbear.har.model.HarContent;
 import com.smartbear.har.model.HarHeader;
 import com.smartbear.har.model.HarPostData;
 import com.smartbear.har.model.HarQueryString;
+import enums.CacheStatus;
 import enums.Configuration;
 import enums.HttpVerb;
-import errors.ConfigurationError;
-import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import loggers.FileLogger;
 import managers.ApiRequestManager;
 import managers.ConfigurationManager;
-import managers.PlaywrightManager;
+import managers.LoadStatisticsManager;
+import managers.RateLimitManager;
+import managers.ScenarioManager;
+import managers.TransportManager;
 import org.apache.hc.core5.http.HttpHeaders;
-import org.apache.hc.core5.http.message.BasicNameValuePair;
-import org.apache.hc.core5.net.URIBuilder;
-import utils.JsonSerializer;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+import pojos.BurstResult;
+import pojos.FileBody;
+import pojos.PollResult;
+import pojos.RequestBody;
+import pojos.RequestTimings;
+import utils.Compression;
 
 /**
- * Wrapper around the Playwright HTTP Client.
+ * HTTP Client which logs and records requests sent through the configured
+ * {@link transports.HttpTransport}, throttled by {@link RateLimitManager} below the HTTP cache.
  */
 public class PlaywrightHttpClient {
 
-  public static final String HTTP_1_1 = "HTTP/1.1";
   private static final String EMPTY = "";
   private static final String APPLICATION_JSON = "application/json";
+  private static final int HTTP_SERVER_ERROR = 500;
   private final Level apiLogLevel;
 
   public PlaywrightHttpClient() {
     this.apiLogLevel = Level.FINE;
   }
 
-  public APIResponse send(
+  /**
+   * Sends a request with a JSON body, encoded once per change to the body.
+   *
+   * @param jsonBody The JSON body, or null to send no body.
+   * @return The response.
+   */
+  public ApiResponse send(
       HttpVerb httpVerb,
       String urlFragment,
-      String jsonContent,
+      RequestBody jsonBody,
       Map<String, String> queryParams,
       Map<String, String> headers) {
     return sendPrivate(
         httpVerb,
         urlFragment,
-        jsonContent,
+        jsonBody,
+        null,
         queryParams,
         headers);
   }
 
-  private APIResponse sendPrivate(
+  /**
+   * Sends a request whose body is streamed from a file. The HAR records only the size and SHA-256
+   * of the file.
+   *
+   * @param fileBody The file to send.
+   * @return The response.
+   */
+  public ApiResponse sendFile(
       HttpVerb httpVerb,
       String urlFragment,
-      String jsonContent,
+      FileBody fileBody,
       Map<String, String> queryParams,
       Map<String, String> headers) {
-    var request = buildRequest(headers);
-
-    var url = buildUrl(urlFragment, queryParams);
-
-    logHttpRequest(
+    return sendPrivate(
         httpVerb,
-        url,
-        jsonContent);
-
-    var start = System.nanoTime();
-    var httpResponse = switch (httpVerb) {
-      case HttpVerb.GET -> request.get(url);
-      case HttpVerb.POST -> request.post(
-          url,
-          RequestOptions.create().setData(jsonContent));
-      case HttpVerb.PUT -> request.put(
-          url,
-          RequestOptions.create().setData(jsonContent));
-    };
-    var waitTime = (System.nanoTime() - start) / 1000_000;
-    FileLogger.instance().get().fine(String.format("Action Executed in %s ms", waitTime));
-
-    logHttpResponse(httpResponse);
+        urlFragment,
+        null,
+        fileBody,
+        queryParams,
+        headers);
+  }
 
-    buildHarEntry(httpVerb, urlFragment, jsonContent, queryParams, headers, httpResponse, waitTime);
+  /**
+   * Repeats the request with {@link PollingEngine} until the condition matches or
+   * {@link Configuration#API_RETRY_LOOP_TIMEOUT} passes. Attempts and time taken are attached to
+   * the scenario.
+   *
+   * @param condition Checked against every response.
+   * @return The outcome, including the last response received.
+   */
+  public PollResult sendUntil(
+      HttpVerb httpVerb,
+      String urlFragment,
+      RequestBody jsonBody,
+      Map<String, String> queryParams,
+      Map<String, String> headers,
+      Predicate<ApiResponse> condition) {
+    var result = PollingEngine.fromConfiguration().poll(
+        () -> sendPrivate(httpVerb, urlFragment, jsonBody, null, queryParams, headers),
+        condition);
 
-    return httpResponse;
+    var summary = String.format("%s %s: %s", httpVerb, urlFragment, result);
+    FileLogger.instance().get().info(summary);
+    ScenarioManager.instance().getScenario().attach(summary, "Polling");
+    return result;
   }
 
-  private APIRequestContext buildRequest(Map<String, String> additionalHeaders) {
-    var baseUrl = getBaseUrl();
-    FileLogger.instance().get().fine(
-        String.format("Created API Request Object for URL : %s%n", baseUrl));
+  /**
+   * Sends the same request {@code count} times at once through a thread safe transport, recording
+   * the status and latency of each. Individual requests are not logged or recorded in the HAR;
+   * a summary is logged and attached to the scenario instead. Requests are throttled by
+   * {@link RateLimitManager}, and the time spent waiting is left out of their latencies.
+   *
+   * @param count The number of concurrent requests.
+   * @return The status codes and latencies.
+   */
+  public BurstResult sendConcurrently(
+      HttpVerb httpVerb,
+      String urlFragment,
+      RequestBody jsonBody,
+      Map<String, String> queryParams,
+      Map<String, String> headers,
+      int count) {
+    var url = RequestPrototype.get().url(urlFragment, queryParams);
+    var request = buildRequest(httpVerb, url, jsonBody, headers);
+    var transport = TransportManager.get().concurrentTransport();
+    logHttpRequest(httpVerb, url, jsonBody == null ? null : jsonBody.text());
 
-    var headers = setHeaders(additionalHeaders);
-    var playwright = PlaywrightManager.get().playwright();
-    return playwright.request().newContext(
-        new NewContextOptions()
-            .setBaseURL(baseUrl)
-            .setExtraHTTPHeaders(headers)
-            .setTimeout(
-                ConfigurationManager.get().environment()
-                    .asRequiredInteger(Configuration.API_TIMEOUT))
-            .setIgnoreHTTPSErrors(true));
+    var statuses = new int[count];
+    var latencies = new long[count];
+    var timings = new RequestTimings[count];
+    var completed = new AtomicInteger();
+    var errors = new AtomicInteger();
+    var firstError = new AtomicReference<RuntimeException>();
+    var startGate = new CountDownLatch(1);
+    var start = System.nanoTime();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (var i = 0; i < count; i++) {
+        executor.submit(() -> {
+          startGate.await();
+          var requestStart = System.nanoTime();
+          try {
+            var response = transport.send(request);
+            var latency = System.nanoTime() - requestStart
+                - RateLimitManager.get().takeWaitNanos();
+            response.release();
+            var index = completed.getAndIncrement();
+            statuses[index] = response.status();
+            latencies[index] = latency;
+            timings[index] = response.timings();
+          } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            firstError.compareAndSet(null, e);
+          }
+          return null;
+        });
+      }
+      startGate.countDown();
+    }
+    var elapsed = System.nanoTime() - start;
+    if (firstError.get() != null) {
+      // Logged from the scenario thread, as the virtual threads have no scenario log
+      FileLogger.instance().get().log(
+          Level.WARNING,
+          String.format(
+              "%d of %d concurrent requests failed, the first with: %s",
+              errors.get(),
+              count,
+              firstError.get().getMessage()),
+          firstError.get());
+    }
+    for (var i = 0; i < completed.get(); i++) {
+      ApiRequestManager.get().addTimings(timings[i]);
+    }
+
+    var result = new BurstResult(
+        Arrays.copyOf(statuses, completed.get()),
+        Arrays.copyOf(latencies, completed.get()),
+        errors.get(),
+        elapsed);
+    var summary = String.format("%d x %s %s: %s", count, httpVerb, urlFragment, result);
+    FileLogger.instance().get().info(summary);
+    ScenarioManager.instance().getScenario().attach(summary, "Concurrent requests");
+    return result;
   }
 
-  private String getBaseUrl() {
-    URIBuilder builder = null;
-    try {
-      builder = new URIBuilder(ensureTrailingSlash(
-          ConfigurationManager.get().environment().asRequiredString(Configuration.API_BASE_URL)));
-    } catch (URISyntaxException e) {
-      throw new ConfigurationError(e);
-    }
-    return ensureTrailingSlash(builder.toString());
+  /**
+   * Sends a GET request straight through the selected transport, below the circuit breaker and
+   * HTTP cache and bypassing the rate limiter, load statistics and HAR, to open a connection
+   * before any scenario has started.
+   *
+   * @param urlFragment The route to request.
+   */
+  public void warmUp(String urlFragment) {
+    var prototype = RequestPrototype.get();
+    TransportManager.get().directTransport().send(
+        prototype.request(HttpVerb.GET, prototype.url(urlFragment, null), (byte[]) null, null))
+        .release();
   }
 
-  private Map<String, String> setHeaders(Map<String, String> additionalHeaders) {
-    var headers = new HashMap<String, String>();
-    headers.put(HttpHeaders.ACCEPT, APPLICATION_JSON);
-    headers.put(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
-    headers.put(HttpHeaders.ACCEPT_LANGUAGE, "en-US");
+  private ApiResponse sendPrivate(
+      HttpVerb httpVerb,
+      String urlFragment,
+      RequestBody jsonBody,
+      FileBody fileBody,
+      Map<String, String> queryParams,
+      Map<String, String> headers) {
+    var url = RequestPrototype.get().url(urlFragment, queryParams);
+    var jsonContent = jsonBody == null ? null : jsonBody.text();
+
+    logHttpRequest(
+        httpVerb,
+        url,
+        fileBody != null ? fileBody.toString() : jsonContent);
 
-    var apiKey = ConfigurationManager.get().environment().asString(Configuration.API_KEY);
-    if (apiKey != null) {
-      headers.put("api-key", apiKey);
-      FileLogger.instance().get().fine("API Key added to request.");
-    }
+    var request = fileBody != null
+        ? RequestPrototype.get().request(httpVerb, url, fileBody, headers)
+        : buildRequest(httpVerb, url, jsonBody, headers);
+    var transport = TransportManager.get().transport();
 
-    if (additionalHeaders != null && !additionalHeaders.isEmpty()) {
-      headers.putAll(additionalHeaders);
+    var route = String.format("%s %s", httpVerb, urlFragment);
+    var rateLimiter = RateLimitManager.get();
+    rateLimiter.takeWaitNanos();
+    var start = System.nanoTime();
+    ApiResponse httpResponse;
+    try {
+      httpResponse = transport.send(request);
+    } catch (RuntimeException e) {
+      LoadStatisticsManager.get().recordRequest(
+          route,
+          System.nanoTime() - start - rateLimiter.takeWaitNanos(),
+          true);
+      throw e;
+    }
+    // Time spent throttled is the client's, not the API's
+    var elapsed = System.nanoTime() - start - rateLimiter.takeWaitNanos();
+    LoadStatisticsManager.get().recordRequest(
+        route,
+        elapsed,
+        httpResponse.status() >= HTTP_SERVER_ERROR);
+    ApiRequestManager.get().addResponse(httpResponse);
+    ApiRequestManager.get().addTimings(httpResponse.timings());
+    var waitTime = elapsed / 1000_000;
+    FileLogger.instance().get().fine(String.format(
+        "Action Executed in %s ms (%s)%s",
+        waitTime,
+        httpResponse.timings(),
+        httpResponse.cacheStatus() != null ? ", cache " + httpResponse.cacheStatus() : EMPTY));
+    var statistics = transport.statistics();
+    if (statistics != null) {
+      FileLogger.instance().get().fine(statistics);
     }
 
-    return headers;
-  }
-
-  private String buildUrl(String urlFragment, Map<String, String> queryParams) {
-    urlFragment = removeLeadingSlash(urlFragment);
+    logHttpResponse(httpResponse);
 
-    if (queryParams != null && !queryParams.isEmpty()) {
-      URIBuilder builder = null;
-      try {
-        builder = new URIBuilder(urlFragment);
-      } catch (URISyntaxException e) {
-        throw new ConfigurationError(e);
-      }
-      builder.addParameters(queryParams.entrySet()
-          .stream()
-          .map(entry -> new BasicNameValuePair(entry.getKey(), entry.getValue()))
-          .collect(toList()));
-      return builder.toString();
+    if (ConfigurationManager.get().configuration().asFlag(Configuration.CAPTURE_HAR, true)) {
+      buildHarEntry(
+          httpVerb, urlFragment, harPostData(jsonContent, fileBody), queryParams, headers,
+          httpResponse);
     }
 
-    return urlFragment;
+    return httpResponse;
   }
 
   /**
-   * Playwright requires no leading slash for a relative URL.
-   *
-   * @param urlFragment The URL fragment.
-   * @return The URL fragment with leading slash removed if present.
+   * The body is encoded, and compressed when enabled, by {@link RequestBody}, which keeps the
+   * bytes until the body next changes. Polling attempts and repeated sends reuse them.
    */
-  private String removeLeadingSlash(String urlFragment) {
-    if (urlFragment.startsWith("/")) {
-      return urlFragment.substring(1);
-    } else {
-      return urlFragment;
+  private ApiRequest buildRequest(
+      HttpVerb httpVerb,
+      String url,
+      RequestBody jsonBody,
+      Map<String, String> headers) {
+    var body = jsonBody == null ? null : jsonBody.bytes();
+    if (body != null && shouldCompress(body.length)) {
+      var compressed = jsonBody.gzipped();
+      FileLogger.instance().get().fine(
+          String.format("Request body compressed from %d to %d bytes", body.length,
+              compressed.length));
+      body = compressed;
+      headers = headers == null ? new HashMap<>() : new HashMap<>(headers);
+      headers.put(HttpHeaders.CONTENT_ENCODING, Compression.GZIP);
+    }
+    var prototype = RequestPrototype.get();
+    if (prototype.hasApiKey()) {
+      FileLogger.instance().get().fine("API Key added to request.");
     }
+    return prototype.request(httpVerb, url, body, headers);
   }
 
   /**
-   * URLBuilder Playwright requires trailing slash on base URL.
-   *
-   * @param urlFragment The URL fragment.
-   * @return The URL fragment with trailing slash added if not present.
+   * Request bodies are only compressed when compression is enabled and a threshold is configured,
+   * as not every server accepts compressed request bodies.
    */
-  private String ensureTrailingSlash(String urlFragment) {
-    if (!urlFragment.endsWith("/")) {
-      return urlFragment + "/";
-    } else {
-      return urlFragment;
-    }
+  private boolean shouldCompress(int length) {
+    var configuration = ConfigurationManager.get().configuration();
+    var threshold = configuration.asInteger(Configuration.REQUEST_COMPRESSION_THRESHOLD, -1);
+    return configuration.asFlag(Configuration.HTTP_COMPRESSION, false)
+        && threshold >= 0
+        && length > threshold;
   }
 
-  private void logHttpResponse(APIResponse httpResponse) {
-    var content =
-        Objects.equals(
-            httpResponse.headers().get(HttpHeaders.CONTENT_TYPE.toLowerCase()),
-            "application/json")
-            ? JsonSerializer.prettyPrint(httpResponse.text())
-            : httpResponse.text();
-
+  private void logHttpResponse(ApiResponse httpResponse) {
     FileLogger.instance().get().log(
         this.apiLogLevel,
         String.format(
-            "Received API Response with Status {%s} and Content: {%s%n}",
+            "Received API Response with Status {%s}, %d bytes (%d bytes received) "
+                + "and Content: {%s%n}",
             httpResponse.status(),
-            content));
+            httpResponse.size(),
+            httpResponse.encodedSize(),
+            httpResponse.preview()));
   }
 
   private void logHttpRequest(
@@ -217,48 +341,82 @@ public class PlaywrightHttpClient {
             jsonContent != null ? jsonContent : "none"));
   }
 
+  /**
+   * File bodies may be large or binary, so only their size and hash are recorded.
+   */
+  private HarPostData harPostData(String jsonContent, FileBody fileBody) {
+    if (fileBody == null) {
+      return new HarPostData(APPLICATION_JSON, null, jsonContent, EMPTY);
+    }
+    return new HarPostData(
+        fileBody.getRequestContentType(),
+        null,
+        null,
+        String.format(
+            "File body %s, %d bytes, sha256 %s",
+            fileBody.getFileName(),
+            fileBody.size(),
+            fileBody.sha256()));
+  }
+
   private void buildHarEntry(
       HttpVerb httpVerb,
       String urlFragment,
-      String jsonContent,
+      HarPostData postData,
       Map<String, String> queryParams,
       Map<String, String> headers,
-      APIResponse httpResponse,
-      long waitTime) {
+      ApiResponse httpResponse) {
+    var timings = httpResponse.timings();
     if (queryParams == null) {
       queryParams = Map.of();
     }
     if (headers == null) {
       headers = Map.of();
     }
-    var baseUrl = getBaseUrl();
-    var url = buildUrl(urlFragment, null);
-    var fullUrl = baseUrl + url;
+    var prototype = RequestPrototype.get();
+    var fullUrl = prototype.baseUrl() + prototype.url(urlFragment, null);
     var harRequest = new HarRequestBuilder()
         .withMethod(httpVerb.toString())
         .withUrl(fullUrl)
-        .withHttpVersion(HTTP_1_1)
-        .withPostData(new HarPostData(APPLICATION_JSON, null, jsonContent, EMPTY))
+        .withHttpVersion(httpResponse.httpVersion())
+        .withPostData(postData)
         .withQueryString(queryParams.entrySet().stream()
             .map(q -> new HarQueryString(q.getKey(), q.getValue(), EMPTY)).toList())
         .withHeaders(headers.entrySet().stream()
             .map(q -> new HarHeader(q.getKey(), q.getValue(), EMPTY)).toList())
         .build();
-    var contentLength = Long.parseLong(
-        httpResponse.headers().get(HttpHeaders.CONTENT_LENGTH.toLowerCase()));
     var harResponse = new HarResponseBuilder().withContent(
-            new HarContent(contentLength, 0L, APPLICATION_JSON, httpResponse.text(), EMPTY))
-        .withHttpVersion(HTTP_1_1)
+            new HarContent(
+                httpResponse.size(),
+                httpResponse.size() - httpResponse.encodedSize(),
+                APPLICATION_JSON,
+                httpResponse.preview(),
+                httpResponse.isSpilled() ? "Truncated, full body written to disk" : EMPTY))
+        .withHttpVersion(httpResponse.httpVersion())
         .withHeaders(httpResponse.headers().entrySet().stream()
             .map(h -> new HarHeader(h.getKey(), h.getValue(), EMPTY)).toList())
         .withStatus(httpResponse.status())
         .build();
 
+    var cacheStatus = httpResponse.cacheStatus();
     ApiRequestManager.get().addRequest(
         new HarEntryBuilder()
             .withRequest(harRequest)
             .withResponse(harResponse)
-            .withTime(waitTime)
+            .withCache(cacheStatus == null || cacheStatus == CacheStatus.BYPASS
+                ? null
+                : new HarCache(null, null, cacheStatus.toString().toLowerCase()))
+            .withComment(cacheStatus == CacheStatus.HIT ? "Served from cache" : EMPTY)
+            .withTime(RequestTimings.toMillis(timings.getTotalNanos()))
+            .withTimings(new HarTimingsBuilder()
+                .withBlocked(RequestTimings.toMillis(timings.getBlockedNanos()))
+                .withDns(RequestTimings.toMillis(timings.getDnsNanos()))
+                .withConnect(RequestTimings.toMillis(timings.getConnectNanos()))
+                .withSsl(RequestTimings.toMillis(timings.getSslNanos()))
+                .withSend(RequestTimings.toMillis(timings.getSendNanos()))
+                .withWait(RequestTimings.toMillis(timings.getWaitNanos()))
+                .withReceive(RequestTimings.toMillis(timings.getReceiveNanos()))
+                .build())
             .build());
   }
 
@@ -0,0 +1,107 @@
+package clients;
+
+import enums.Configuration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import loggers.FileLogger;
+import managers.ConfigurationManager;
+import pojos.ApiResponse;
+import pojos.PollResult;
+import utils.HttpHeaderUtils;
+
+/**
+ * Repeats a request until its response matches a condition or the deadline passes.
+ *
+ * <p>Waits between attempts grow exponentially with full jitter, and a {@code Retry-After} header
+ * on the response is honoured when it asks for a longer wait. The condition is checked as soon as
+ * each response arrives, so polling stops on the first match.
+ */
+public class PollingEngine {
+
+  private static final int DEFAULT_TIMEOUT = 60000;
+  private static final int DEFAULT_INITIAL_DELAY = 250;
+  private static final int DEFAULT_MAX_DELAY = 5000;
+  private static final int BACKOFF_MULTIPLIER = 2;
+  private final long timeoutMs;
+  private final long initialDelayMs;
+  private final long maxDelayMs;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param timeoutMs      The deadline, measured from the first attempt.
+   * @param initialDelayMs The upper bound of the first wait.
+   * @param maxDelayMs     The largest upper bound the wait grows to.
+   */
+  public PollingEngine(long timeoutMs, long initialDelayMs, long maxDelayMs) {
+    this.timeoutMs = timeoutMs;
+    this.initialDelayMs = initialDelayMs;
+    this.maxDelayMs = maxDelayMs;
+  }
+
+  /**
+   * Creates an engine using {@link Configuration#API_RETRY_LOOP_TIMEOUT},
+   * {@link Configuration#API_RETRY_INITIAL_DELAY} and {@link Configuration#API_RETRY_MAX_DELAY}.
+   *
+   * @return The polling engine.
+   */
+  public static PollingEngine fromConfiguration() {
+    var configuration = ConfigurationManager.get().configuration();
+    return new PollingEngine(
+        configuration.asInteger(Configuration.API_RETRY_LOOP_TIMEOUT, DEFAULT_TIMEOUT),
+        configuration.asInteger(Configuration.API_RETRY_INITIAL_DELAY, DEFAULT_INITIAL_DELAY),
+        configuration.asInteger(Configuration.API_RETRY_MAX_DELAY, DEFAULT_MAX_DELAY));
+  }
+
+  /**
+   * Sends the request until the condition matches or the deadline passes.
+   *
+   * @param request   Sends one attempt.
+   * @param condition Checked against every response.
+   * @return The outcome, including the last response received.
+   */
+  public PollResult poll(Supplier<ApiResponse> request, Predicate<ApiResponse> condition) {
+    var start = System.nanoTime();
+    var deadline = start + timeoutMs * 1000_000;
+    var backoff = initialDelayMs;
+    var attempts = 0;
+
+    while (true) {
+      var response = request.get();
+      attempts++;
+      var elapsed = (System.nanoTime() - start) / 1000_000;
+      if (condition.test(response)) {
+        return new PollResult(response, attempts, elapsed, true);
+      }
+
+      var remaining = (deadline - System.nanoTime()) / 1000_000;
+      if (remaining <= 0) {
+        return new PollResult(response, attempts, elapsed, false);
+      }
+
+      var delay = Math.max(
+          ThreadLocalRandom.current().nextLong(backoff + 1),
+          HttpHeaderUtils.retryAfterMillis(response.headers()));
+      delay = Math.min(delay, remaining);
+      FileLogger.instance().get().fine(
+          String.format(
+              "Attempt %d returned status %d, retrying in %d ms",
+              attempts,
+              response.status(),
+              delay));
+      sleep(delay);
+      backoff = Math.min(backoff * BACKOFF_MULTIPLIER, maxDelayMs);
+    }
+  }
+
+  private void sleep(long delay) {
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while polling", e);
+    }
+  }
+
+}
@@ -0,0 +1,244 @@
+package clients;
+
+import enums.Configuration;
+import enums.HttpVerb;
+import errors.ConfigurationError;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import managers.ConfigurationManager;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.net.URIBuilder;
+import pojos.ApiRequest;
+import pojos.FileBody;
+import utils.Compression;
+
+/**
+ * The parts of a request which only depend on the environment: the normalised base URL, the
+ * default headers and the timeout. Built once per configuration and shared by all scenario
+ * threads, so that sending a request only adds what is specific to it.
+ *
+ * <p>Routes are compiled on first use into their relative form, and query strings are appended
+ * with a percent-encoder which copies unreserved characters as they are.
+ */
+public class RequestPrototype {
+
+  private static final String APPLICATION_JSON = "application/json";
+  private static final int MAX_ROUTES = 1024;
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+  private static volatile RequestPrototype instance;
+  private final ConfigurationManager source;
+  private final String baseUrl;
+  private final Map<String, String> defaultHeaders;
+  private final int timeout;
+  private final boolean apiKey;
+  private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+  private RequestPrototype(ConfigurationManager source) {
+    this.source = source;
+    var environment = source.environment();
+    try {
+      baseUrl = ensureTrailingSlash(new URIBuilder(
+          ensureTrailingSlash(environment.asRequiredString(Configuration.API_BASE_URL)))
+          .toString());
+    } catch (URISyntaxException e) {
+      throw new ConfigurationError(e);
+    }
+
+    var headers = new HashMap<String, String>();
+    headers.put(HttpHeaders.ACCEPT, APPLICATION_JSON);
+    headers.put(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+    headers.put(HttpHeaders.ACCEPT_LANGUAGE, "en-US");
+    if (source.configuration().asFlag(Configuration.HTTP_COMPRESSION, false)) {
+      headers.put(HttpHeaders.ACCEPT_ENCODING, Compression.acceptEncoding());
+    }
+    var key = environment.asString(Configuration.API_KEY);
+    if (key != null) {
+      headers.put("api-key", key);
+    }
+    apiKey = key != null;
+    defaultHeaders = Map.copyOf(headers);
+    timeout = environment.asRequiredInteger(Configuration.API_TIMEOUT);
+  }
+
+  /**
+   * Retrieves the prototype for the current configuration, building it again after the
+   * configuration has been reloaded.
+   *
+   * @return The prototype.
+   */
+  public static RequestPrototype get() {
+    var configuration = ConfigurationManager.get();
+    var current = instance;
+    if (current == null || current.source != configuration) {
+      current = new RequestPrototype(configuration);
+      instance = current;
+    }
+    return current;
+  }
+
+  /**
+   * Creates a request with a body held in memory.
+   *
+   * @param httpVerb The HTTP verb.
+   * @param url      The URL relative to the base URL, from {@link #url(String, Map)}.
+   * @param body     The encoded request body, or null.
+   * @param headers  Headers for this request only.
+   * @return The request.
+   */
+  public ApiRequest request(
+      HttpVerb httpVerb,
+      String url,
+      byte[] body,
+      Map<String, String> headers) {
+    return new ApiRequest(httpVerb, baseUrl, url, body, defaultHeaders, headers, timeout);
+  }
+
+  /**
+   * Creates a request with a body streamed from a file.
+   *
+   * @param httpVerb The HTTP verb.
+   * @param url      The URL relative to the base URL, from {@link #url(String, Map)}.
+   * @param fileBody The file to send.
+   * @param headers  Headers for this request only.
+   * @return The request.
+   */
+  public ApiRequest request(
+      HttpVerb httpVerb,
+      String url,
+      FileBody fileBody,
+      Map<String, String> headers) {
+    return new ApiRequest(httpVerb, baseUrl, url, fileBody, defaultHeaders, headers, timeout);
+  }
+
+  /**
+   * Builds the URL of a route relative to the base URL, with the query parameters appended in
+   * iteration order.
+   *
+   * @param route       The route, with or without a leading slash or query string.
+   * @param queryParams The query parameters, or null.
+   * @return The relative URL.
+   */
+  public String url(String route, Map<String, String> queryParams) {
+    var compiled = compile(route);
+    if (queryParams == null || queryParams.isEmpty()) {
+      return compiled.path();
+    }
+    var url = new StringBuilder(compiled.path().length() + queryParams.size() * 16)
+        .append(compiled.path());
+    var separator = compiled.querySeparator();
+    for (var parameter : queryParams.entrySet()) {
+      url.append(separator);
+      encode(url, parameter.getKey());
+      if (parameter.getValue() != null) {
+        url.append('=');
+        encode(url, parameter.getValue());
+      }
+      separator = '&';
+    }
+    return url.toString();
+  }
+
+  /**
+   * The base URL, with trailing slash.
+   *
+   * @return The base URL.
+   */
+  public String baseUrl() {
+    return baseUrl;
+  }
+
+  /**
+   * Whether an API key is sent with every request.
+   *
+   * @return true if an API key is configured.
+   */
+  public boolean hasApiKey() {
+    return apiKey;
+  }
+
+  /**
+   * Routes come from feature files, so there are few of them. The limit only guards against
+   * routes built at runtime.
+   */
+  private Route compile(String route) {
+    var compiled = routes.get(route);
+    if (compiled == null) {
+      var path = removeLeadingSlash(route);
+      compiled = new Route(path, path.indexOf('?') >= 0 ? '&' : '?');
+      if (routes.size() < MAX_ROUTES) {
+        routes.putIfAbsent(route, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * Percent-encodes everything except the RFC 3986 unreserved characters.
+   */
+  private static void encode(StringBuilder url, String value) {
+    for (var i = 0; i < value.length(); i++) {
+      var c = value.charAt(i);
+      if (isUnreserved(c)) {
+        url.append(c);
+      } else if (c < 0x80) {
+        appendEscaped(url, c);
+      } else {
+        var end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+        for (var b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+          appendEscaped(url, b & 0xFF);
+        }
+        i = end - 1;
+      }
+    }
+  }
+
+  private static boolean isUnreserved(char c) {
+    return c >= 'a' && c <= 'z'
+        || c >= 'A' && c <= 'Z'
+        || c >= '0' && c <= '9'
+        || c == '-' || c == '.' || c == '_' || c == '~';
+  }
+
+  private static void appendEscaped(StringBuilder url, int b) {
+    url.append('%').append(HEX[b >> 4]).append(HEX[b & 0xF]);
+  }
+
+  /**
+   * Playwright requires no leading slash for a relative URL.
+   *
+   * @param urlFragment The URL fragment.
+   * @return The URL fragment with leading slash removed if present.
+   */
+  private static String removeLeadingSlash(String urlFragment) {
+    if (urlFragment.startsWith("/")) {
+      return urlFragment.substring(1);
+    } else {
+      return urlFragment;
+    }
+  }
+
+  /**
+   * URLBuilder Playwright requires trailing slash on base URL.
+   *
+   * @param urlFragment The URL fragment.
+   * @return The URL fragment with trailing slash added if not present.
+   */
+  private static String ensureTrailingSlash(String urlFragment) {
+    if (!urlFragment.endsWith("/")) {
+      return urlFragment + "/";
+    } else {
+      return urlFragment;
+    }
+  }
+
+  /**
+   * A route relative to the base URL, and the character which starts appended query parameters.
+   */
+  private record Route(String path, char querySeparator) {
+
+  }
+
+}
@@ -0,0 +1,11 @@
+package enums;
+
+/**
+ * How the HTTP cache handled a response.
+ */
+public enum CacheStatus {
+  BYPASS,
+  MISS,
+  HIT,
+  REVALIDATED
+}
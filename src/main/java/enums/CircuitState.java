@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * States of the circuit breaker guarding the target API.
+ */
+public enum CircuitState {
+  CLOSED,
+  OPEN,
+  HALF_OPEN
+}
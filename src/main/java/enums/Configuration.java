@@ -4,20 +4,64 @@ package enums;
  * enum to represent the different configuration options.
  */
 public enum Configuration {
-  API_BASE_URL("apiBaseURL"),
-  API_KEY("apiKey"),
-  API_TIMEOUT("apiTimeout"),
-  API_RETRY_LOOP_TIMEOUT("apiRetryLoopTimeout"),
-  ENVIRONMENT("environment"),
-  LOG_TO_FILE_ON_FAILURE("logToFileOnFailure"),
-  LOG_TO_FILE_ALWAYS("logToFileAlways"),
-  MINIMUM_LOG_LEVEL_CONSOLE("minimumLogLevelConsole"),
-  MINIMUM_LOG_LEVEL_FILE("minimumLogLevelFile");
+  API_BASE_URL("apiBaseURL", ConfigurationType.STRING, true),
+  API_KEY("apiKey", ConfigurationType.STRING),
+  API_MAX_IN_FLIGHT("apiMaxInFlight", ConfigurationType.INTEGER),
+  API_RATE_LIMIT("apiRateLimit", ConfigurationType.INTEGER),
+  API_TIMEOUT("apiTimeout", ConfigurationType.INTEGER, true),
+  API_CONTEXT_IDLE_TIMEOUT("apiContextIdleTimeout", ConfigurationType.INTEGER),
+  API_RETRY_INITIAL_DELAY("apiRetryInitialDelay", ConfigurationType.INTEGER),
+  API_RETRY_LOOP_TIMEOUT("apiRetryLoopTimeout", ConfigurationType.INTEGER),
+  API_RETRY_MAX_DELAY("apiRetryMaxDelay", ConfigurationType.INTEGER),
+  CAPTURE_HAR("captureHar", ConfigurationType.FLAG),
+  CIRCUIT_BREAKER_FAILURE_THRESHOLD("circuitBreakerFailureThreshold", ConfigurationType.INTEGER),
+  CIRCUIT_BREAKER_OPEN_DURATION("circuitBreakerOpenDuration", ConfigurationType.INTEGER),
+  ENVIRONMENT("environment", ConfigurationType.STRING, true),
+  HTTP_CACHE("httpCache", ConfigurationType.FLAG),
+  HTTP_CACHE_MAX_BYTES("httpCacheMaxBytes", ConfigurationType.INTEGER),
+  HTTP_CACHE_MAX_ENTRIES("httpCacheMaxEntries", ConfigurationType.INTEGER),
+  HTTP_COMPRESSION("httpCompression", ConfigurationType.FLAG),
+  HTTP_MAX_CONNECTIONS("httpMaxConnections", ConfigurationType.INTEGER),
+  HTTP_MAX_CONNECTIONS_PER_ROUTE("httpMaxConnectionsPerRoute", ConfigurationType.INTEGER),
+  HTTP_TRANSPORT("httpTransport", ConfigurationType.STRING),
+  LOAD_ARRIVAL_RATE("loadArrivalRate", ConfigurationType.INTEGER),
+  LOAD_DURATION("loadDuration", ConfigurationType.INTEGER),
+  LOAD_MAX_VIRTUAL_USERS("loadMaxVirtualUsers", ConfigurationType.INTEGER),
+  LOAD_PROFILE("loadProfile", ConfigurationType.STRING),
+  LOAD_RAMP_START_RATE("loadRampStartRate", ConfigurationType.INTEGER),
+  LOAD_TAGS("loadTags", ConfigurationType.STRING),
+  LOAD_WARMUP("loadWarmup", ConfigurationType.INTEGER),
+  LOG_TO_FILE_ON_FAILURE("logToFileOnFailure", ConfigurationType.FLAG),
+  LOG_TO_FILE_ALWAYS("logToFileAlways", ConfigurationType.FLAG),
+  MINIMUM_LOG_LEVEL_CONSOLE("minimumLogLevelConsole", ConfigurationType.STRING),
+  MINIMUM_LOG_LEVEL_FILE("minimumLogLevelFile", ConfigurationType.STRING),
+  PLAYWRIGHT_LEASE_TIMEOUT("playwrightLeaseTimeout", ConfigurationType.INTEGER),
+  PLAYWRIGHT_POOL_SIZE("playwrightPoolSize", ConfigurationType.INTEGER),
+  PLAYWRIGHT_PRESPAWN("playwrightPrespawn", ConfigurationType.INTEGER),
+  REPLAY_CORPUS("replayCorpus", ConfigurationType.STRING),
+  REPLAY_MODE("replayMode", ConfigurationType.STRING),
+  REQUEST_COMPRESSION_THRESHOLD("requestCompressionThreshold", ConfigurationType.INTEGER),
+  RESPONSE_BODY_MEMORY_THRESHOLD("responseBodyMemoryThreshold", ConfigurationType.INTEGER),
+  STREAMING_ASSERTION_THRESHOLD("streamingAssertionThreshold", ConfigurationType.INTEGER),
+  STUB_SERVER("stubServer", ConfigurationType.FLAG),
+  STUB_SERVER_LATENCY("stubServerLatency", ConfigurationType.INTEGER),
+  STUB_SERVER_STATUS("stubServerStatus", ConfigurationType.INTEGER),
+  WARM_UP("warmUp", ConfigurationType.FLAG),
+  WARM_UP_CONNECTIONS("warmUpConnections", ConfigurationType.INTEGER),
+  WARM_UP_ROUTE("warmUpRoute", ConfigurationType.STRING);
 
   private final String property;
+  private final ConfigurationType type;
+  private final boolean required;
 
-  Configuration(String property) {
+  Configuration(String property, ConfigurationType type) {
+    this(property, type, false);
+  }
+
+  Configuration(String property, ConfigurationType type, boolean required) {
     this.property = property;
+    this.type = type;
+    this.required = required;
   }
 
   /**
@@ -28,4 +72,22 @@ public enum Configuration {
   public String getProperty() {
     return this.property;
   }
+
+  /**
+   * Gets the type the value is converted to when the configuration is loaded.
+   *
+   * @return the value type.
+   */
+  public ConfigurationType getType() {
+    return this.type;
+  }
+
+  /**
+   * Whether the suite cannot run without a value for the property.
+   *
+   * @return true if the property is required.
+   */
+  public boolean isRequired() {
+    return this.required;
+  }
 }
@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * The type a configuration value is converted to when the configuration is loaded.
+ */
+public enum ConfigurationType {
+  FLAG,
+  INTEGER,
+  STRING
+}
@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * Available HTTP transport backends.
+ */
+public enum HttpTransportType {
+  PLAYWRIGHT,
+  APACHE_ASYNC,
+  JAVA_NET
+}
@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * Whether responses are recorded to, or replayed from, the replay corpus.
+ */
+public enum ReplayMode {
+  OFF,
+  RECORD,
+  REPLAY
+}
@@ -17,4 +17,8 @@ public class ConfigurationError extends RuntimeException {
     super(cause);
   }
 
+  public ConfigurationError(String message, Throwable cause) {
+    super(message, cause);
+  }
+
 }
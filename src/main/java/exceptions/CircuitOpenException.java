@@ -0,0 +1,13 @@
+package exceptions;
+
+/**
+ * Custom Unchecked Exception raised instead of sending a request while the circuit breaker is
+ * open, because recent requests could not reach the API.
+ */
+@SuppressWarnings("checkstyle:MissingJavadocMethod")
+public class CircuitOpenException extends HttpTransportException {
+
+  public CircuitOpenException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,16 @@
+package exceptions;
+
+/**
+ * Custom Unchecked Exception raised when a HTTP transport fails to complete a request.
+ */
+@SuppressWarnings("checkstyle:MissingJavadocMethod")
+public class HttpTransportException extends RuntimeException {
+
+  public HttpTransportException(String message) {
+    super(message);
+  }
+
+  public HttpTransportException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -23,6 +23,7 @@ public class FileLogger {
 
   private static final String LOG_FOLDER = "logs";
   private static final String SOURCE_FOLDER = "target";
+  private static final String SUITE_LOGGER_NAME = "suite";
   private static final String LOG_FOLDER_PATH = String.format("%s/%s", SOURCE_FOLDER, LOG_FOLDER);
   private static FileLogger instance;
   private final LogManager logManager;
@@ -46,11 +47,16 @@ public class FileLogger {
   }
 
   /**
-   * Gets the default scenario Logger or initializes if not already setup.
+   * Gets the default scenario Logger or initializes if not already setup. Outside a scenario a
+   * console only logger is returned.
    *
    * @return The Logger
    */
   public Logger get() {
+    if (logger.get() == null && ScenarioManager.instance().getScenario() == null) {
+      // Outside a scenario, such as while warming up, there is no scenario log file to write to
+      return Logger.getLogger(SUITE_LOGGER_NAME);
+    }
     if (logger.get() == null) {
       var log = Logger.getLogger(getDefaultScenarioLoggerName());
       logManager.addLogger(log);
@@ -7,6 +7,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import pojos.ApiResponse;
+import pojos.RequestTimings;
+import pojos.TimingSummary;
 
 public class ApiRequestManager {
 
@@ -15,9 +18,13 @@ public class ApiRequestManager {
       ScenarioManager.SOURCE_FOLDER, HAR_FOLDER);
   private static ApiRequestManager instance;
   private final ThreadLocal<ArrayList<HarEntry>> requests;
+  private final ThreadLocal<ArrayList<ApiResponse>> responses;
+  private final ThreadLocal<TimingSummary> timings;
 
   public ApiRequestManager() {
     this.requests = ThreadLocal.withInitial(ArrayList::new);
+    this.responses = ThreadLocal.withInitial(ArrayList::new);
+    this.timings = ThreadLocal.withInitial(TimingSummary::new);
   }
 
   public static synchronized ApiRequestManager get() {
@@ -31,6 +38,28 @@ public class ApiRequestManager {
     this.requests.get().add(harEntry);
   }
 
+  /**
+   * Tracks a response snapshot so its memory is released at scenario teardown.
+   *
+   * @param response The response.
+   */
+  public void addResponse(ApiResponse response) {
+    this.responses.get().add(response);
+  }
+
+  public void addTimings(RequestTimings timings) {
+    this.timings.get().add(timings);
+  }
+
+  /**
+   * Request phase timings aggregated over the current scenario.
+   *
+   * @return The timing summary.
+   */
+  public TimingSummary timingSummary() {
+    return this.timings.get();
+  }
+
   public Path writeHar() throws IOException {
     if (this.requests.get().isEmpty()) {
       return null;
@@ -53,6 +82,9 @@ public class ApiRequestManager {
 
   public void teardown() {
     this.requests.remove();
+    this.responses.get().forEach(ApiResponse::release);
+    this.responses.remove();
+    this.timings.remove();
   }
 
 }
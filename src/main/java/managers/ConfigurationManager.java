@@ -5,36 +5,67 @@ import errors.ConfigurationError;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Properties;
 
 /**
  * Singleton class to manage Environment and Testing configuration.
+ *
+ * <p>Both property files, their secrets, environment variables and system properties are resolved
+ * once, when the manager is created, into immutable snapshots. Scenario threads then read them
+ * without locking. {@link #reload()} takes a new snapshot after system properties are changed at
+ * runtime.
  */
 public class ConfigurationManager {
 
-  private static ConfigurationManager instance;
+  private static final String CONFIG_FOLDER = "./src/test/resources/config/";
+  private static volatile ConfigurationManager instance;
   private final PropertyHandler configuration;
-  private PropertyHandler environment;
+  private final PropertyHandler environment;
 
   /**
-   * Constructs a ConfigurationManager and initialises the configuration PropertyHandler.
+   * Constructs a ConfigurationManager and resolves the configuration and environment
+   * PropertyHandlers. Without an environment name the environment only holds values from
+   * environment variables and system properties, and {@link #validate()} reports the name missing.
    */
   private ConfigurationManager() {
-    configuration = new PropertyHandler("./src/test/resources/config/configuration.properties");
+    configuration = new PropertyHandler(CONFIG_FOLDER + "configuration.properties");
+    var environmentName = configuration.asString(Configuration.ENVIRONMENT);
+    environment = environmentName == null
+        ? new PropertyHandler()
+        : new PropertyHandler(
+            String.format("%s%s.env.properties", CONFIG_FOLDER, environmentName));
   }
 
   /**
-   * Retrieves the singleton instance of ConfigurationManager.
+   * Retrieves the singleton instance of ConfigurationManager. Only the first call locks.
    *
    * @return The singleton instance of ConfigurationManager.
    */
-  public static synchronized ConfigurationManager get() {
-    if (instance == null) {
-      instance = new ConfigurationManager();
+  public static ConfigurationManager get() {
+    var current = instance;
+    if (current == null) {
+      synchronized (ConfigurationManager.class) {
+        if (instance == null) {
+          instance = new ConfigurationManager();
+        }
+        current = instance;
+      }
     }
-    return instance;
+    return current;
+  }
+
+  /**
+   * Resolves the configuration again, so that system properties set since it was first read take
+   * effect. Components which have already read their configuration keep it.
+   */
+  public static synchronized void reload() {
+    instance = new ConfigurationManager();
   }
 
   /**
@@ -43,12 +74,6 @@ public class ConfigurationManager {
    * @return The environment PropertyHandler.
    */
   public PropertyHandler environment() {
-    if (environment == null) {
-      environment = new PropertyHandler(
-          String.format(
-              "./src/test/resources/config/%s.env.properties",
-              configuration.asRequiredString(Configuration.ENVIRONMENT)));
-    }
     return environment;
   }
 
@@ -61,12 +86,52 @@ public class ConfigurationManager {
     return configuration;
   }
 
+  /**
+   * Lists the required properties set in neither the configuration nor the environment, and the
+   * values which are not of their property's type. A system property or environment variable
+   * overrides both files, so its problem is only listed once.
+   *
+   * @return The problems found, empty when the configuration is valid.
+   */
+  public List<String> validationReport() {
+    var problems = new LinkedHashSet<String>();
+    for (var property : Configuration.values()) {
+      if (property.isRequired()
+          && !configuration.contains(property)
+          && !environment.contains(property)) {
+        problems.add(String.format("%s is required but not set", property.getProperty()));
+      }
+      for (var handler : List.of(configuration, environment)) {
+        var problem = handler.typeError(property);
+        if (problem != null) {
+          problems.add(problem);
+        }
+      }
+    }
+    return List.copyOf(problems);
+  }
+
+  /**
+   * Fails with every problem in the {@link #validationReport()} at once, rather than one at a time
+   * as scenarios read the configuration.
+   *
+   * @throws ConfigurationError If the configuration is not valid.
+   */
+  public void validate() {
+    var problems = validationReport();
+    if (!problems.isEmpty()) {
+      throw new ConfigurationError(String.format(
+          "The configuration is not valid:%n - %s",
+          String.join(String.format("%n - "), problems)));
+    }
+  }
+
   /**
    * A utility class which provides mechanisms to retrieve configuration data.
    */
   public static class PropertyHandler {
 
-    private final Properties properties;
+    private final Map<Configuration, TypedValue> values;
 
     /**
      * Constructs a PropertyHandler and loads properties from the given path.
@@ -74,41 +139,86 @@ public class ConfigurationManager {
      * @param path The path to the properties file.
      */
     public PropertyHandler(String path) {
+      var properties = new Properties();
       try (FileInputStream input = new FileInputStream(path)) {
-        properties = new Properties();
         properties.load(input);
-        overwriteSecrets(path);
+        overwriteSecrets(properties, path);
       } catch (IOException e) {
         throw new ConfigurationError(
             String.format("There was an error loading the property file at path: %s", path), e);
       }
+      values = resolve(properties);
+    }
+
+    /**
+     * Constructs a PropertyHandler without a properties file.
+     */
+    private PropertyHandler() {
+      values = resolve(new Properties());
     }
 
     /**
-     * Retrieves a configuration property with the given name.
+     * Resolves every configuration property once. Environment variables take precedence over
+     * system properties, which take precedence over the properties file.
+     *
+     * @param properties The properties loaded from file.
+     * @return The resolved values, without entries for properties which are not set.
+     */
+    private static Map<Configuration, TypedValue> resolve(Properties properties) {
+      var resolved = new EnumMap<Configuration, TypedValue>(Configuration.class);
+      for (var configuration : Configuration.values()) {
+        var property = configuration.getProperty();
+        var value = System.getenv(getEnvNameForOperatingSystem(property));
+        if (value == null) {
+          value = System.getProperty(property);
+        }
+        if (value == null) {
+          value = properties.getProperty(property);
+        }
+        if (value != null) {
+          resolved.put(configuration, TypedValue.of(value));
+        }
+      }
+      return Collections.unmodifiableMap(resolved);
+    }
+
+    /**
+     * Retrieves a configuration property which must be set.
      *
      * @param configuration The enum of the configuration property.
-     * @param strict        Indicates whether to throw an error if the property is not found.
      * @return The value of the property.
-     * @throws NoSuchFieldError If the property is not found and strict mode is enabled.
-     */
-    private Object getConfiguration(Configuration configuration, boolean strict)
-        throws NoSuchFieldError {
-      var property = configuration.getProperty();
-      var envProperty = getEnvNameForOperatingSystem(property);
-      Object config = Optional.ofNullable(System.getenv(envProperty))
-          .orElse(System.getProperty(property));
-
-      if (strict) {
-        return Optional.ofNullable(config)
-            .orElseGet(() ->
-                Optional.ofNullable(properties.get(property))
-                    .orElseThrow(
-                        () ->
-                            new NoSuchFieldError(
-                                String.format("No configuration value found for %s", property))));
+     * @throws NoSuchFieldError If the property is not found.
+     */
+    private TypedValue getRequired(Configuration configuration) throws NoSuchFieldError {
+      var value = values.get(configuration);
+      if (value == null) {
+        throw new NoSuchFieldError(
+            String.format("No configuration value found for %s", configuration.getProperty()));
+      }
+      return value;
+    }
+
+    private boolean contains(Configuration configuration) {
+      return values.containsKey(configuration);
+    }
+
+    /**
+     * Describes the value of the property if it is not of the property's type.
+     *
+     * @param configuration The enum of the configuration property.
+     * @return The problem, or null if the value is valid or not set.
+     */
+    private String typeError(Configuration configuration) {
+      var value = values.get(configuration);
+      if (value == null) {
+        return null;
       }
-      return Optional.ofNullable(config).orElse(properties.get(property));
+      return switch (configuration.getType()) {
+        case FLAG -> value.flag() == null ? value.describeAs(configuration, "a flag") : null;
+        case INTEGER ->
+            value.integer() == null ? value.describeAs(configuration, "an integer") : null;
+        case STRING -> null;
+      };
     }
 
     /**
@@ -116,12 +226,11 @@ public class ConfigurationManager {
      *
      * @param configuration The enum of the configuration property.
      * @return The boolean value of the property, or null if not found.
+     * @throws ConfigurationError If the value is neither true nor false.
      */
     public Boolean asFlag(Configuration configuration) {
-      var configurationValue = getConfiguration(configuration, false);
-      return configurationValue == null
-          ? null
-          : Boolean.parseBoolean(String.valueOf(configurationValue));
+      var value = values.get(configuration);
+      return value == null ? null : value.asFlag(configuration);
     }
 
     /**
@@ -131,9 +240,11 @@ public class ConfigurationManager {
      * @param configuration The enum of the configuration property.
      * @param defaultValue  The default value.
      * @return The boolean value of the property, or the default value if not found.
+     * @throws ConfigurationError If the value is neither true nor false.
      */
     public boolean asFlag(Configuration configuration, boolean defaultValue) {
-      return Optional.ofNullable(asFlag(configuration)).orElse(defaultValue);
+      var value = values.get(configuration);
+      return value == null ? defaultValue : value.asFlag(configuration);
     }
 
     /**
@@ -142,9 +253,10 @@ public class ConfigurationManager {
      * @param configuration The enum of the configuration property.
      * @return The boolean value of the property.
      * @throws NoSuchFieldError If the property is not found.
+     * @throws ConfigurationError If the value is neither true nor false.
      */
     public boolean asRequiredFlag(Configuration configuration) throws NoSuchFieldError {
-      return Boolean.parseBoolean(String.valueOf(getConfiguration(configuration, true)));
+      return getRequired(configuration).asFlag(configuration);
     }
 
     /**
@@ -154,8 +266,8 @@ public class ConfigurationManager {
      * @return The string value of the property, or null if not found.
      */
     public String asString(Configuration configuration) {
-      var configurationValue = getConfiguration(configuration, false);
-      return configurationValue == null ? null : String.valueOf(configurationValue);
+      var value = values.get(configuration);
+      return value == null ? null : value.text();
     }
 
     /**
@@ -167,7 +279,8 @@ public class ConfigurationManager {
      * @return The string value of the property, or the default value if not found.
      */
     public String asString(Configuration configuration, String defaultValue) {
-      return Optional.ofNullable(asString(configuration)).orElse(defaultValue);
+      var value = values.get(configuration);
+      return value == null ? defaultValue : value.text();
     }
 
     /**
@@ -178,7 +291,7 @@ public class ConfigurationManager {
      * @throws NoSuchFieldError If the property is not found.
      */
     public String asRequiredString(Configuration configuration) throws NoSuchFieldError {
-      return String.valueOf(getConfiguration(configuration, true));
+      return getRequired(configuration).text();
     }
 
     /**
@@ -186,12 +299,11 @@ public class ConfigurationManager {
      *
      * @param configuration The enum of the configuration property.
      * @return The integer value of the property, or null if not found.
+     * @throws ConfigurationError If the value is not an integer.
      */
     public Integer asInteger(Configuration configuration) {
-      var configurationValue = getConfiguration(configuration, false);
-      return configurationValue == null
-          ? null
-          : Integer.valueOf(String.valueOf(configurationValue));
+      var value = values.get(configuration);
+      return value == null ? null : value.asInteger(configuration);
     }
 
     /**
@@ -201,9 +313,11 @@ public class ConfigurationManager {
      * @param configuration The enum of the configuration property.
      * @param defaultValue  The default value.
      * @return The integer value of the property, or the default value if not found.
+     * @throws ConfigurationError If the value is not an integer.
      */
-    public Integer asInteger(Configuration configuration, Integer defaultValue) {
-      return Optional.ofNullable(asInteger(configuration)).orElse(defaultValue);
+    public int asInteger(Configuration configuration, int defaultValue) {
+      var value = values.get(configuration);
+      return value == null ? defaultValue : value.asInteger(configuration);
     }
 
     /**
@@ -212,12 +326,13 @@ public class ConfigurationManager {
      * @param configuration The enum of the configuration property.
      * @return The integer value of the property.
      * @throws NoSuchFieldError If the property is not found.
+     * @throws ConfigurationError If the value is not an integer.
      */
     public Integer asRequiredInteger(Configuration configuration) throws NoSuchFieldError {
-      return Integer.valueOf(String.valueOf(getConfiguration(configuration, true)));
+      return getRequired(configuration).asInteger(configuration);
     }
 
-    private String getEnvNameForOperatingSystem(String env) {
+    private static String getEnvNameForOperatingSystem(String env) {
       if (Objects.equals(System.getenv("AGENT_OS"), "Linux")) {
         return env.toUpperCase();
       }
@@ -229,10 +344,11 @@ public class ConfigurationManager {
      * Attempts to load file {@code <environment-name>.env.secrets} into properties. Secret values
      * take precedence.
      *
-     * @param path The path to the environment file, assumes convention
-     *             {@code <environment-name>.env.properties}.
+     * @param properties The properties loaded from the environment file.
+     * @param path       The path to the environment file, assumes convention
+     *                   {@code <environment-name>.env.properties}.
      */
-    private void overwriteSecrets(String path) {
+    private static void overwriteSecrets(Properties properties, String path) {
       var secretsPath = path != null ? path.replace(".properties", ".secrets") : null;
       if (secretsPath != null && new File(secretsPath).exists()) {
         try (FileInputStream secrets = new FileInputStream(secretsPath)) {
@@ -246,5 +362,51 @@ public class ConfigurationManager {
         }
       }
     }
+
+    /**
+     * A resolved value, converted once to each type it can be read as.
+     *
+     * @param text    The value as set.
+     * @param integer The value as an integer, or null if it is not one.
+     * @param flag    The value as a boolean, or null if it is neither true nor false.
+     */
+    private record TypedValue(String text, Integer integer, Boolean flag) {
+
+      private static TypedValue of(String text) {
+        var trimmed = text.trim();
+        Integer integer;
+        try {
+          integer = Integer.valueOf(trimmed);
+        } catch (NumberFormatException e) {
+          integer = null;
+        }
+        Boolean flag = null;
+        if ("true".equalsIgnoreCase(trimmed)) {
+          flag = Boolean.TRUE;
+        } else if ("false".equalsIgnoreCase(trimmed)) {
+          flag = Boolean.FALSE;
+        }
+        return new TypedValue(text, integer, flag);
+      }
+
+      private Integer asInteger(Configuration configuration) {
+        if (integer == null) {
+          throw new ConfigurationError(describeAs(configuration, "an integer"));
+        }
+        return integer;
+      }
+
+      private Boolean asFlag(Configuration configuration) {
+        if (flag == null) {
+          throw new ConfigurationError(describeAs(configuration, "a flag"));
+        }
+        return flag;
+      }
+
+      private String describeAs(Configuration configuration, String type) {
+        return String.format(
+            "%s must be %s but is '%s'", configuration.getProperty(), type, text);
+      }
+    }
   }
 }
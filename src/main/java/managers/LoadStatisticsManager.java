@@ -0,0 +1,189 @@
+package managers;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+
+/**
+ * Collects latency histograms per route and per scenario while running in load-generation mode.
+ *
+ * <p>Nothing is recorded unless {@link #startRecording()} has been called, so warm-up traffic is
+ * excluded from the results.
+ */
+public class LoadStatisticsManager {
+
+  private static final String LOAD_FOLDER_PATH = String.format("%s/%s",
+      ScenarioManager.SOURCE_FOLDER, "load");
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final double MICROS_PER_MILLI = 1000.0;
+  private static LoadStatisticsManager instance;
+  private final Map<String, Statistics> routes = new ConcurrentHashMap<>();
+  private final Map<String, Statistics> scenarios = new ConcurrentHashMap<>();
+  private volatile boolean active;
+  private volatile boolean recording;
+  private volatile long recordingStart;
+  private volatile long recordingEnd;
+
+  /**
+   * Retrieves the singleton instance of LoadStatisticsManager.
+   *
+   * @return The singleton instance of LoadStatisticsManager.
+   */
+  public static synchronized LoadStatisticsManager get() {
+    if (instance == null) {
+      instance = new LoadStatisticsManager();
+    }
+    return instance;
+  }
+
+  /**
+   * Whether load-generation mode is running, in which case the load runner owns the suite
+   * lifecycle and per-scenario artifacts are disabled.
+   *
+   * @return True while running in load-generation mode.
+   */
+  public boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Enters load-generation mode without recording, i.e. the warm-up phase.
+   */
+  public void start() {
+    active = true;
+  }
+
+  /**
+   * Discards anything recorded so far and starts recording.
+   */
+  public void startRecording() {
+    routes.clear();
+    scenarios.clear();
+    recordingStart = System.nanoTime();
+    recording = true;
+  }
+
+  /**
+   * Stops recording and leaves load-generation mode.
+   */
+  public void stop() {
+    if (recording) {
+      recordingEnd = System.nanoTime();
+    }
+    recording = false;
+    active = false;
+  }
+
+  /**
+   * Records a single HTTP request.
+   *
+   * @param route          The HTTP verb and route.
+   * @param latencyNanos   Time taken by the request.
+   * @param error          Whether the request failed or returned an error status.
+   */
+  public void recordRequest(String route, long latencyNanos, boolean error) {
+    if (recording) {
+      routes.computeIfAbsent(route, key -> new Statistics()).record(latencyNanos, error);
+    }
+  }
+
+  /**
+   * Records a single scenario execution.
+   *
+   * @param scenario     The scenario name.
+   * @param latencyNanos Time taken by the scenario.
+   * @param failed       Whether the scenario failed.
+   */
+  public void recordScenario(String scenario, long latencyNanos, boolean failed) {
+    if (recording) {
+      scenarios.computeIfAbsent(scenario, key -> new Statistics()).record(latencyNanos, failed);
+    }
+  }
+
+  /**
+   * Prints a summary table per route and per scenario.
+   *
+   * @param out The stream to print to.
+   */
+  public void printReport(PrintStream out) {
+    var seconds = Math.max(1, recordingEnd - recordingStart) / 1_000_000_000.0;
+    printTable(out, "Route", routes, seconds);
+    printTable(out, "Scenario", scenarios, seconds);
+  }
+
+  /**
+   * Writes the full percentile distribution of each histogram under {@code target/load}, in the
+   * HdrHistogram {@code .hgrm} format, values in milliseconds.
+   *
+   * @return The folder written to.
+   * @throws IOException If a file cannot be written.
+   */
+  public Path writeHistograms() throws IOException {
+    var folder = Path.of(LOAD_FOLDER_PATH);
+    Files.createDirectories(folder);
+    writeHistograms(folder, "route", routes);
+    writeHistograms(folder, "scenario", scenarios);
+    return folder;
+  }
+
+  private void writeHistograms(Path folder, String prefix, Map<String, Statistics> statistics)
+      throws IOException {
+    for (var entry : statistics.entrySet()) {
+      var fileName = String.format("%s-%s.hgrm", prefix, entry.getKey())
+          .replaceAll("[^a-zA-Z0-9 ._-]", "-");
+      try (var out = new PrintStream(Files.newOutputStream(folder.resolve(fileName)))) {
+        entry.getValue().histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+      }
+    }
+  }
+
+  private void printTable(
+      PrintStream out,
+      String heading,
+      Map<String, Statistics> statistics,
+      double seconds) {
+    out.printf(
+        "%-40s | %8s | %6s | %8s | %8s | %8s | %8s | %8s%n",
+        heading,
+        "Count",
+        "Errors",
+        "Per sec",
+        "p50 ms",
+        "p95 ms",
+        "p99 ms",
+        "Max ms");
+    for (var entry : new TreeMap<>(statistics).entrySet()) {
+      var histogram = entry.getValue().histogram;
+      out.printf(
+          "%-40s | %8d | %6d | %8.1f | %8.1f | %8.1f | %8.1f | %8.1f%n",
+          entry.getKey(),
+          histogram.getTotalCount(),
+          entry.getValue().errors.sum(),
+          histogram.getTotalCount() / seconds,
+          histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(95) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+          histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+  }
+
+  private static class Statistics {
+
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+
+    private void record(long latencyNanos, boolean error) {
+      histogram.recordValue(Math.max(0, latencyNanos / 1000));
+      if (error) {
+        errors.increment();
+      }
+    }
+  }
+
+}
@@ -1,12 +1,49 @@
 package managers;
 
+import clients.ApiRequestContextPool;
 import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.Playwright.CreateOptions;
+import enums.Configuration;
+import enums.HttpTransportType;
+import enums.ReplayMode;
+import errors.ConfigurationError;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import loggers.FileLogger;
 
+/**
+ * Manages a bounded pool of Playwright instances which scenarios lease and return.
+ *
+ * <p>Each Playwright instance owns a Node driver process. Instances are handed to one thread at a
+ * time, so the Playwright threading rules still hold while a lease is active.
+ */
 public class PlaywrightManager {
 
+  private static final int DEFAULT_CONTEXT_IDLE_TIMEOUT = 60000;
+  private static final int DEFAULT_LEASE_TIMEOUT = 60000;
   private static PlaywrightManager instance;
-  private final ThreadLocal<Playwright> playwrightThreadLocal = new ThreadLocal<>();
+  private final int poolSize;
+  private final BlockingQueue<PooledPlaywright> idle = new LinkedBlockingQueue<>();
+  private final Set<PooledPlaywright> instances = ConcurrentHashMap.newKeySet();
+  private final ThreadLocal<PooledPlaywright> lease = new ThreadLocal<>();
+  private final AtomicInteger spawned = new AtomicInteger();
+  private final AtomicInteger inUse = new AtomicInteger();
+  private final AtomicInteger maxInUse = new AtomicInteger();
+  private final AtomicLong leases = new AtomicLong();
+  private final AtomicLong totalLeaseWaitMs = new AtomicLong();
+  private final AtomicLong maxLeaseWaitMs = new AtomicLong();
+  private volatile boolean closed;
+
+  private PlaywrightManager(int poolSize) {
+    this.poolSize = poolSize;
+  }
 
   /**
    * Retrieves the singleton instance of PlaywrightManager.
@@ -20,30 +57,226 @@ public class PlaywrightManager {
   }
 
   /**
-   * Starts the PlaywrightManager by creating a new instance of it.
+   * Starts the PlaywrightManager and, when Playwright is the configured transport and responses
+   * are not replayed, pre-spawns the Playwright pool in the background.
    */
-  public static void startPlaywright() {
-    instance = new PlaywrightManager();
+  public static synchronized void startPlaywright() {
+    if (instance == null) {
+      instance = new PlaywrightManager(
+          ConfigurationManager.get().configuration().asInteger(
+              Configuration.PLAYWRIGHT_POOL_SIZE,
+              Runtime.getRuntime().availableProcessors()));
+      if (TransportManager.configuredType() == HttpTransportType.PLAYWRIGHT
+          && TransportManager.replayMode() != ReplayMode.REPLAY) {
+        instance.prespawn(
+            ConfigurationManager.get().configuration().asInteger(
+                Configuration.PLAYWRIGHT_PRESPAWN,
+                instance.poolSize));
+      }
+    }
   }
 
   /**
-   * Retrieves the current Playwright instance for the current thread.
+   * Closes every Playwright instance in the pool, terminating their driver processes.
+   */
+  public static synchronized void stopPlaywright() {
+    if (instance != null) {
+      instance.close();
+      FileLogger.instance().get().info(instance.statistics());
+      instance = null;
+    }
+  }
+
+  /**
+   * Retrieves the Playwright instance leased by the current thread, leasing one from the pool if
+   * the thread does not already hold one.
    *
    * @return The current Playwright instance.
+   * @throws ConfigurationError If no instance becomes available within
+   *                            {@link Configuration#PLAYWRIGHT_LEASE_TIMEOUT}.
    */
   public Playwright playwright() {
-    if (this.playwrightThreadLocal.get() == null) {
-      playwrightThreadLocal.set(Playwright.create());
-    }
-    return this.playwrightThreadLocal.get();
+    return leased().playwright;
+  }
+
+  /**
+   * Retrieves the API Request context pool for the current Playwright instance, disposing any
+   * contexts which have been idle longer than {@link Configuration#API_CONTEXT_IDLE_TIMEOUT}.
+   *
+   * @return The API Request context pool.
+   */
+  public ApiRequestContextPool requestContexts() {
+    var pool = leased().requestContexts;
+    pool.evictIdle(ConfigurationManager.get().configuration()
+        .asInteger(Configuration.API_CONTEXT_IDLE_TIMEOUT, DEFAULT_CONTEXT_IDLE_TIMEOUT));
+    return pool;
   }
 
   /**
-   * Ends the current test session.
+   * Ends the current test session, returning the leased Playwright instance to the pool.
    */
   public void teardown() {
-    if (this.playwrightThreadLocal.get() != null) {
-      this.playwrightThreadLocal.remove();
+    var pooled = this.lease.get();
+    if (pooled != null) {
+      this.lease.remove();
+      inUse.decrementAndGet();
+      FileLogger.instance().get().fine(
+          String.format(
+              "API Request contexts created: %d, reused: %d",
+              ApiRequestContextPool.created(),
+              ApiRequestContextPool.reused()));
+      if (closed) {
+        closeQuietly(pooled);
+      } else {
+        idle.offer(pooled);
+      }
+    }
+  }
+
+  /**
+   * Summary of pool usage for reporting at the end of the suite.
+   *
+   * @return The pool statistics.
+   */
+  public String statistics() {
+    var count = leases.get();
+    return String.format(
+        "Playwright pool: size %d, spawned %d, in use %d (max %d), leases %d, "
+            + "lease wait avg %d ms (max %d ms)",
+        poolSize,
+        spawned.get(),
+        inUse.get(),
+        maxInUse.get(),
+        count,
+        count == 0 ? 0 : totalLeaseWaitMs.get() / count,
+        maxLeaseWaitMs.get());
+  }
+
+  private PooledPlaywright leased() {
+    if (this.lease.get() == null) {
+      var start = System.nanoTime();
+      var pooled = acquire();
+      var waitTime = (System.nanoTime() - start) / 1000_000;
+
+      leases.incrementAndGet();
+      totalLeaseWaitMs.addAndGet(waitTime);
+      maxLeaseWaitMs.accumulateAndGet(waitTime, Math::max);
+      maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+      this.lease.set(pooled);
+      FileLogger.instance().get().fine(
+          String.format(
+              "Leased Playwright instance in %s ms (%d of %d in use)",
+              waitTime,
+              inUse.get(),
+              poolSize));
+    }
+    return this.lease.get();
+  }
+
+  private PooledPlaywright acquire() {
+    var pooled = idle.poll();
+    if (pooled != null) {
+      return pooled;
+    }
+    if (reserveSpawn()) {
+      return spawn();
+    }
+
+    var timeout = ConfigurationManager.get().configuration()
+        .asInteger(Configuration.PLAYWRIGHT_LEASE_TIMEOUT, DEFAULT_LEASE_TIMEOUT);
+    try {
+      pooled = idle.poll(timeout, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConfigurationError(e);
+    }
+    if (pooled == null) {
+      throw new ConfigurationError(
+          "No Playwright instance became available within %d ms, pool size %d",
+          timeout,
+          poolSize);
+    }
+    return pooled;
+  }
+
+  private void prespawn(int count) {
+    var prespawnCount = Math.min(count, poolSize);
+    if (prespawnCount <= 0) {
+      return;
+    }
+    Thread.ofPlatform()
+        .daemon()
+        .name("playwright-prespawn")
+        .start(() -> {
+          for (var i = 0; i < prespawnCount && !closed && reserveSpawn(); i++) {
+            try {
+              var pooled = spawn();
+              if (closed) {
+                closeQuietly(pooled);
+              } else {
+                idle.offer(pooled);
+              }
+            } catch (RuntimeException e) {
+              FileLogger.instance().get().warning(
+                  String.format("Failed to pre-spawn Playwright instance: %s", e.getMessage()));
+              return;
+            }
+          }
+        });
+  }
+
+  private boolean reserveSpawn() {
+    var current = spawned.get();
+    while (current < poolSize) {
+      if (spawned.compareAndSet(current, current + 1)) {
+        return true;
+      }
+      current = spawned.get();
+    }
+    return false;
+  }
+
+  /**
+   * Creates a new Playwright instance. Browsers are never downloaded as only the API Request
+   * functionality is used.
+   */
+  private PooledPlaywright spawn() {
+    try {
+      var pooled = new PooledPlaywright(Playwright.create(
+          new CreateOptions().setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1"))));
+      instances.add(pooled);
+      return pooled;
+    } catch (RuntimeException e) {
+      spawned.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void close() {
+    closed = true;
+    idle.clear();
+    instances.forEach(this::closeQuietly);
+  }
+
+  private void closeQuietly(PooledPlaywright pooled) {
+    instances.remove(pooled);
+    try {
+      pooled.requestContexts.dispose();
+      pooled.playwright.close();
+    } catch (RuntimeException e) {
+      FileLogger.instance().get().warning(
+          String.format("Failed to close Playwright instance: %s", e.getMessage()));
+    }
+  }
+
+  private static class PooledPlaywright {
+
+    private final Playwright playwright;
+    private final ApiRequestContextPool requestContexts;
+
+    private PooledPlaywright(Playwright playwright) {
+      this.playwright = playwright;
+      this.requestContexts = new ApiRequestContextPool(playwright);
     }
   }
 
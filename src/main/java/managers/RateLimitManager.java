@@ -0,0 +1,201 @@
+package managers;
+
+import enums.Configuration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import pojos.ApiResponse;
+import utils.HttpHeaderUtils;
+
+/**
+ * Singleton class which throttles requests to the target API across all scenario threads, so that
+ * a large agent running many scenarios in parallel does not overwhelm a small environment.
+ *
+ * <p>Requests are limited to {@link Configuration#API_RATE_LIMIT} per second by a token bucket
+ * holding up to one second of tokens, and to {@link Configuration#API_MAX_IN_FLIGHT} at once.
+ * Either limit is disabled when not configured. While either limit is configured, a 429 or 503
+ * response pauses all requests for its {@code Retry-After} delay, or an exponentially growing delay
+ * without one, and halves the rate, which then recovers gradually as requests succeed after the
+ * pause. Without a limit responses are passed through untouched, so scenarios can assert on them.
+ */
+public class RateLimitManager {
+
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+  private static final long INITIAL_BACKOFF_MILLIS = 1000;
+  private static final long MAX_BACKOFF_MILLIS = 30000;
+  private static final double RECOVERY_FRACTION = 0.1;
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+  // Shorter waits are lock contention rather than throttling
+  private static final long MIN_THROTTLE_NANOS = 1000_000;
+  private static RateLimitManager instance;
+  private final double configuredRate;
+  private final Semaphore inFlight;
+  private final boolean limited;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder throttledRequests = new LongAdder();
+  private final LongAdder throttleWaitNanos = new LongAdder();
+  private final LongAdder backoffs = new LongAdder();
+  private final ThreadLocal<Long> lastWaitNanos = ThreadLocal.withInitial(() -> 0L);
+  private double rate;
+  private double tokens;
+  private long lastRefill = System.nanoTime();
+  private long pausedUntil = lastRefill;
+  private long backoffMillis = INITIAL_BACKOFF_MILLIS;
+
+  private RateLimitManager() {
+    var configuration = ConfigurationManager.get().configuration();
+    configuredRate = Math.max(configuration.asInteger(Configuration.API_RATE_LIMIT, 0), 0);
+    var maxInFlight = configuration.asInteger(Configuration.API_MAX_IN_FLIGHT, 0);
+    inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+    limited = configuredRate > 0 || inFlight != null;
+    rate = configuredRate;
+    tokens = Math.max(configuredRate, 1);
+  }
+
+  /**
+   * Retrieves the singleton instance of RateLimitManager.
+   *
+   * @return The singleton instance of RateLimitManager.
+   */
+  public static synchronized RateLimitManager get() {
+    if (instance == null) {
+      instance = new RateLimitManager();
+    }
+    return instance;
+  }
+
+  /**
+   * Waits until a request may be sent. Every call must be followed by {@link #release()} once the
+   * response has been received.
+   */
+  public void acquire() {
+    var start = System.nanoTime();
+    var delay = reserve(start);
+    if (delay > 0) {
+      sleep(delay);
+    }
+    if (inFlight != null) {
+      try {
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting to send a request", e);
+      }
+    }
+    var waited = System.nanoTime() - start;
+    lastWaitNanos.set(waited);
+    requests.increment();
+    if (waited >= MIN_THROTTLE_NANOS) {
+      throttledRequests.increment();
+      throttleWaitNanos.add(waited);
+    }
+  }
+
+  /**
+   * How long the current thread waited in {@link #acquire()} since the last call, so that the
+   * wait can be left out of the time measured for a request.
+   *
+   * @return The wait in nanoseconds, 0 when the request was not throttled or never sent.
+   */
+  public long takeWaitNanos() {
+    var waited = lastWaitNanos.get();
+    lastWaitNanos.set(0L);
+    return waited;
+  }
+
+  /**
+   * Frees the in-flight slot taken by {@link #acquire()}.
+   */
+  public void release() {
+    if (inFlight != null) {
+      inFlight.release();
+    }
+  }
+
+  /**
+   * Adapts to the response when a limit is configured, backing off when the API reports it is
+   * overloaded. Successes only ease the backoff once the pause has elapsed, as responses to
+   * requests already in flight say nothing about whether the API has recovered.
+   *
+   * @param response The response received.
+   * @return How long in milliseconds requests are paused for, or 0 when not backing off.
+   */
+  public long onResponse(ApiResponse response) {
+    if (!limited) {
+      return 0;
+    }
+    var status = response.status();
+    synchronized (this) {
+      if (status != HTTP_TOO_MANY_REQUESTS && status != HTTP_SERVICE_UNAVAILABLE) {
+        if (System.nanoTime() < pausedUntil) {
+          return 0;
+        }
+        backoffMillis = INITIAL_BACKOFF_MILLIS;
+        if (configuredRate > 0) {
+          rate = Math.min(configuredRate, rate + configuredRate * RECOVERY_FRACTION);
+        }
+        return 0;
+      }
+
+      var retryAfter = HttpHeaderUtils.retryAfterMillis(response.headers());
+      var pause = retryAfter >= 0 ? retryAfter : backoffMillis;
+      backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+      pausedUntil = Math.max(pausedUntil, System.nanoTime() + pause * 1000_000);
+      if (configuredRate > 0) {
+        rate = Math.max(rate / 2, configuredRate * RECOVERY_FRACTION);
+        tokens = 0;
+      }
+      backoffs.increment();
+      return pause;
+    }
+  }
+
+  /**
+   * Summary of the time spent waiting for the limits, for the run summary.
+   *
+   * @return The summary, or null when nothing has been throttled and no limit is configured.
+   */
+  public String summary() {
+    if (!limited && throttledRequests.sum() == 0) {
+      return null;
+    }
+    return String.format(
+        "Throttled %d of %d request(s), waited %d ms, %d backoff(s)",
+        throttledRequests.sum(),
+        requests.sum(),
+        throttleWaitNanos.sum() / 1000_000,
+        backoffs.sum());
+  }
+
+  /**
+   * Takes a token, going into debt when the bucket is empty so that waiting requests are served
+   * in order.
+   *
+   * @return How long in nanoseconds to wait before sending.
+   */
+  private synchronized long reserve(long now) {
+    var start = Math.max(now, pausedUntil);
+    var sendAt = start;
+    if (rate > 0) {
+      tokens = Math.min(
+          Math.max(rate, 1),
+          tokens + Math.max(start - lastRefill, 0) * rate / NANOS_PER_SECOND);
+      lastRefill = start;
+      tokens--;
+      if (tokens < 0) {
+        sendAt += (long) (-tokens / rate * NANOS_PER_SECOND);
+      }
+    }
+    return sendAt - now;
+  }
+
+  private void sleep(long nanos) {
+    try {
+      Thread.sleep(nanos / 1000_000, (int) (nanos % 1000_000));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to send a request", e);
+    }
+  }
+
+}
@@ -0,0 +1,220 @@
+package managers;
+
+import enums.Configuration;
+import enums.HttpTransportType;
+import enums.ReplayMode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import loggers.FileLogger;
+import transports.ApacheAsyncTransport;
+import transports.CachingTransport;
+import transports.CircuitBreakerTransport;
+import transports.HttpTransport;
+import transports.JavaNetTransport;
+import transports.PlaywrightTransport;
+import transports.RateLimitedTransport;
+import transports.RecordingTransport;
+import transports.ReplayCorpus;
+import transports.ReplayTransport;
+
+/**
+ * Singleton class which creates and owns the HTTP transport selected by
+ * {@link Configuration#HTTP_TRANSPORT}, behind a circuit breaker unless
+ * {@link Configuration#CIRCUIT_BREAKER_FAILURE_THRESHOLD} is 0 and throttled by
+ * {@link RateLimitManager}. In {@link ReplayMode#REPLAY} no transport is created and responses are
+ * served from the replay corpus instead.
+ */
+public class TransportManager {
+
+  private static final int DEFAULT_CACHE_ENTRIES = 1000;
+  private static final int DEFAULT_CACHE_BYTES = 50 * 1024 * 1024;
+  private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  private static final int DEFAULT_OPEN_DURATION = 30000;
+  private static final String DEFAULT_REPLAY_CORPUS = "src/test/resources/replay/corpus.har";
+  private static TransportManager instance;
+  private final ReplayCorpus replayCorpus;
+  private final CircuitBreakerTransport circuitBreaker;
+  private final HttpTransport directTransport;
+  private final HttpTransport baseTransport;
+  private final HttpTransport throttledTransport;
+  private final HttpTransport transport;
+  private HttpTransport concurrentTransport;
+
+  private TransportManager() {
+    var configuration = ConfigurationManager.get().configuration();
+    replayCorpus = replayMode() == ReplayMode.OFF
+        ? null
+        : ReplayCorpus.load(Path.of(
+            configuration.asString(Configuration.REPLAY_CORPUS, DEFAULT_REPLAY_CORPUS)));
+    if (replayMode() == ReplayMode.REPLAY) {
+      circuitBreaker = null;
+      baseTransport = new ReplayTransport(replayCorpus);
+      directTransport = baseTransport;
+      // Replayed responses never reach the API, so they are not throttled
+      throttledTransport = baseTransport;
+      transport = baseTransport;
+      return;
+    }
+
+    HttpTransport selected = switch (configuredType()) {
+      case PLAYWRIGHT -> new PlaywrightTransport();
+      case APACHE_ASYNC -> new ApacheAsyncTransport();
+      case JAVA_NET -> new JavaNetTransport();
+    };
+    directTransport = selected;
+    if (replayMode() == ReplayMode.RECORD) {
+      selected = new RecordingTransport(selected, replayCorpus);
+    }
+    var failureThreshold = configuration.asInteger(
+        Configuration.CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+        DEFAULT_FAILURE_THRESHOLD);
+    circuitBreaker = failureThreshold > 0
+        ? new CircuitBreakerTransport(
+            selected,
+            failureThreshold,
+            configuration.asInteger(
+                Configuration.CIRCUIT_BREAKER_OPEN_DURATION,
+                DEFAULT_OPEN_DURATION))
+        : null;
+    baseTransport = circuitBreaker != null ? circuitBreaker : selected;
+    throttledTransport = new RateLimitedTransport(baseTransport, RateLimitManager.get());
+    transport = configuration.asFlag(Configuration.HTTP_CACHE, false)
+        ? new CachingTransport(
+            throttledTransport,
+            configuration.asInteger(Configuration.HTTP_CACHE_MAX_ENTRIES, DEFAULT_CACHE_ENTRIES),
+            configuration.asInteger(Configuration.HTTP_CACHE_MAX_BYTES, DEFAULT_CACHE_BYTES))
+        : throttledTransport;
+  }
+
+  /**
+   * Retrieves the singleton instance of TransportManager.
+   *
+   * @return The singleton instance of TransportManager.
+   */
+  public static synchronized TransportManager get() {
+    if (instance == null) {
+      instance = new TransportManager();
+    }
+    return instance;
+  }
+
+  /**
+   * The transport type selected in configuration, defaulting to Playwright.
+   *
+   * @return The configured transport type.
+   */
+  public static HttpTransportType configuredType() {
+    return HttpTransportType.valueOf(
+        ConfigurationManager.get().configuration()
+            .asString(Configuration.HTTP_TRANSPORT, HttpTransportType.PLAYWRIGHT.toString())
+            .toUpperCase());
+  }
+
+  /**
+   * The replay mode selected in configuration, defaulting to off.
+   *
+   * @return The configured replay mode.
+   */
+  public static ReplayMode replayMode() {
+    return ReplayMode.valueOf(
+        ConfigurationManager.get().configuration()
+            .asString(Configuration.REPLAY_MODE, ReplayMode.OFF.toString())
+            .toUpperCase());
+  }
+
+  /**
+   * Describes the circuit breaker state, for the run summary.
+   *
+   * @return The summary, or null if no transport has been created or the breaker is disabled.
+   */
+  public static synchronized String circuitBreakerSummary() {
+    return instance == null || instance.circuitBreaker == null
+        ? null
+        : instance.circuitBreaker.summary();
+  }
+
+  /**
+   * Closes the transport, if one has been created.
+   */
+  public static synchronized void stop() {
+    if (instance != null) {
+      var statistics = instance.transport.statistics();
+      if (statistics != null) {
+        FileLogger.instance().get().info(statistics);
+      }
+      instance.transport.close();
+      if (instance.concurrentTransport != null) {
+        instance.concurrentTransport.close();
+      }
+      if (replayMode() == ReplayMode.RECORD) {
+        instance.saveReplayCorpus();
+      }
+      instance = null;
+    }
+  }
+
+  /**
+   * Retrieves the configured transport, behind the HTTP cache when
+   * {@link Configuration#HTTP_CACHE} is enabled. Only requests the cache cannot answer are
+   * throttled.
+   *
+   * @return The HTTP transport.
+   */
+  public HttpTransport transport() {
+    return transport;
+  }
+
+  /**
+   * Retrieves the selected transport without the circuit breaker, HTTP cache or replay
+   * recording, for warm-up requests which must not trip the breaker or fill the cache.
+   *
+   * @return The underlying HTTP transport.
+   */
+  public HttpTransport directTransport() {
+    return directTransport;
+  }
+
+  /**
+   * Retrieves a transport which can be called from many threads at once. This is the configured
+   * transport when it is thread safe, otherwise a {@link JavaNetTransport} created on first use.
+   * Concurrent requests measure the API, so they never go through the HTTP cache, but they share
+   * the circuit breaker and are throttled by {@link RateLimitManager} like every other request.
+   *
+   * @return The thread safe HTTP transport.
+   */
+  public synchronized HttpTransport concurrentTransport() {
+    if (baseTransport.isThreadSafe()) {
+      return throttledTransport;
+    }
+    if (concurrentTransport == null) {
+      HttpTransport javaNet = new JavaNetTransport();
+      if (replayMode() == ReplayMode.RECORD) {
+        javaNet = new RecordingTransport(javaNet, replayCorpus);
+      }
+      concurrentTransport = new RateLimitedTransport(
+          circuitBreaker != null ? circuitBreaker.sharing(javaNet) : javaNet,
+          RateLimitManager.get());
+    }
+    return concurrentTransport;
+  }
+
+  /**
+   * Merges the responses recorded in this run into the replay corpus file.
+   */
+  private void saveReplayCorpus() {
+    try {
+      replayCorpus.save();
+      FileLogger.instance().get().info(String.format(
+          "Replay corpus: %d response(s) saved to %s",
+          replayCorpus.size(),
+          replayCorpus.getPath()));
+    } catch (IOException e) {
+      FileLogger.instance().get().log(
+          Level.SEVERE,
+          String.format("Failed to save replay corpus %s", replayCorpus.getPath()),
+          e);
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+package managers;
+
+import clients.PlaywrightHttpClient;
+import enums.Configuration;
+import enums.ReplayMode;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import loggers.FileLogger;
+
+/**
+ * Opens connections to {@link Configuration#API_BASE_URL} before the first scenario, so that
+ * driver startup, DNS, TCP and TLS are not paid for by the first scenario on each worker thread.
+ *
+ * <p>One request to {@link Configuration#WARM_UP_ROUTE} is sent per worker thread, all at once, so
+ * that every thread finds an open connection, and with Playwright a started driver, when it sends
+ * its first request. Any response will do, and failures only produce a warning.
+ */
+public class WarmUpManager {
+
+  private static final String DEFAULT_ROUTE = "";
+  private static volatile String summary;
+
+  private WarmUpManager() {
+    //Private constructor to hide implicit public one
+  }
+
+  /**
+   * Runs the warm-up once, unless disabled by {@link Configuration#WARM_UP} or responses are
+   * replayed, in which case there are no connections to warm up.
+   */
+  public static synchronized void warmUp() {
+    var configuration = ConfigurationManager.get().configuration();
+    if (summary != null
+        || !configuration.asFlag(Configuration.WARM_UP, false)
+        || TransportManager.replayMode() == ReplayMode.REPLAY) {
+      return;
+    }
+    var route = configuration.asString(Configuration.WARM_UP_ROUTE, DEFAULT_ROUTE);
+    var connections = configuration.asInteger(
+        Configuration.WARM_UP_CONNECTIONS,
+        Runtime.getRuntime().availableProcessors());
+
+    var failures = new AtomicInteger();
+    var startGate = new CountDownLatch(1);
+    var start = System.nanoTime();
+    try (var executor = Executors.newFixedThreadPool(connections)) {
+      for (var i = 0; i < connections; i++) {
+        executor.submit(() -> {
+          try {
+            startGate.await();
+            new PlaywrightHttpClient().warmUp(route);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } catch (RuntimeException e) {
+            if (failures.getAndIncrement() == 0) {
+              FileLogger.instance().get().warning(
+                  String.format("Warm-up request failed: %s", e.getMessage()));
+            }
+          } finally {
+            PlaywrightManager.get().teardown();
+          }
+        });
+      }
+      startGate.countDown();
+    }
+
+    summary = String.format(
+        "Warm-up: %d connection(s) to /%s in %d ms, %d failed",
+        connections,
+        route.startsWith("/") ? route.substring(1) : route,
+        (System.nanoTime() - start) / 1000_000,
+        failures.get());
+    FileLogger.instance().get().info(summary);
+  }
+
+  /**
+   * Describes the warm-up, for the run summary.
+   *
+   * @return The summary, or null if no warm-up has run.
+   */
+  public static String summary() {
+    return summary;
+  }
+
+}
@@ -0,0 +1,26 @@
+package plugins;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import managers.LoadStatisticsManager;
+
+/**
+ * Records the duration and outcome of each scenario while running in load-generation mode.
+ */
+public class LoadStatisticsPlugin implements ConcurrentEventListener {
+
+  @Override
+  public void setEventPublisher(EventPublisher eventPublisher) {
+    eventPublisher.registerHandlerFor(TestCaseFinished.class, this::testCaseFinishedHandler);
+  }
+
+  private void testCaseFinishedHandler(TestCaseFinished testCaseFinished) {
+    LoadStatisticsManager.get().recordScenario(
+        testCaseFinished.getTestCase().getName(),
+        testCaseFinished.getResult().getDuration().toNanos(),
+        testCaseFinished.getResult().getStatus() != Status.PASSED);
+  }
+
+}
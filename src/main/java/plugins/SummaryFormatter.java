@@ -7,9 +7,13 @@ import io.cucumber.plugin.event.TestCaseFinished;
 import io.cucumber.plugin.event.TestCaseStarted;
 import java.util.ArrayList;
 import java.util.List;
+import managers.RateLimitManager;
+import managers.TransportManager;
+import managers.WarmUpManager;
 
 /**
- * Outputs running totals to console during test execution.
+ * Outputs running totals, the warm-up time, the circuit breaker state and time spent throttled by
+ * {@link RateLimitManager} to console during test execution.
  */
 public class SummaryFormatter implements ConcurrentEventListener {
 
@@ -70,6 +74,21 @@ public class SummaryFormatter implements ConcurrentEventListener {
         this.otherTestsCases,
         getTotalTestCases());
     System.out.printf(NEW_LINE);
+    var warmUp = WarmUpManager.summary();
+    var circuitBreaker = TransportManager.circuitBreakerSummary();
+    var throttling = RateLimitManager.get().summary();
+    if (warmUp != null) {
+      System.out.printf("%s%n", warmUp);
+    }
+    if (circuitBreaker != null) {
+      System.out.printf("%s%n", circuitBreaker);
+    }
+    if (throttling != null) {
+      System.out.printf("%s%n", throttling);
+    }
+    if (warmUp != null || circuitBreaker != null || throttling != null) {
+      System.out.printf(NEW_LINE);
+    }
   }
 
 }
\ No newline at end of file
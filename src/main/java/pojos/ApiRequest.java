@@ -0,0 +1,119 @@
+package pojos;
+
+import enums.HttpVerb;
+import java.util.Map;
+
+/**
+ * Transport independent description of a HTTP request.
+ */
+public class ApiRequest {
+
+  private final HttpVerb httpVerb;
+  private final String baseUrl;
+  private final String url;
+  private final byte[] body;
+  private final FileBody fileBody;
+  private final Map<String, String> defaultHeaders;
+  private final Map<String, String> headers;
+  private final int timeout;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param httpVerb       The HTTP verb.
+   * @param baseUrl        The base URL, with trailing slash.
+   * @param url            The URL relative to the base URL, including any query string.
+   * @param body           The encoded request body, ignored for GET requests.
+   * @param defaultHeaders Headers sent with every request.
+   * @param headers        Headers for this request only.
+   * @param timeout        The request timeout in milliseconds.
+   */
+  public ApiRequest(
+      HttpVerb httpVerb,
+      String baseUrl,
+      String url,
+      byte[] body,
+      Map<String, String> defaultHeaders,
+      Map<String, String> headers,
+      int timeout) {
+    this.httpVerb = httpVerb;
+    this.baseUrl = baseUrl;
+    this.url = url;
+    this.body = body;
+    this.fileBody = null;
+    this.defaultHeaders = defaultHeaders;
+    this.headers = headers == null ? Map.of() : headers;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Instantiate with a body streamed from a file.
+   *
+   * @param httpVerb       The HTTP verb.
+   * @param baseUrl        The base URL, with trailing slash.
+   * @param url            The URL relative to the base URL, including any query string.
+   * @param fileBody       The file to send as the request body.
+   * @param defaultHeaders Headers sent with every request.
+   * @param headers        Headers for this request only.
+   * @param timeout        The request timeout in milliseconds.
+   */
+  public ApiRequest(
+      HttpVerb httpVerb,
+      String baseUrl,
+      String url,
+      FileBody fileBody,
+      Map<String, String> defaultHeaders,
+      Map<String, String> headers,
+      int timeout) {
+    this.httpVerb = httpVerb;
+    this.baseUrl = baseUrl;
+    this.url = url;
+    this.body = null;
+    this.fileBody = fileBody;
+    this.defaultHeaders = defaultHeaders;
+    this.headers = headers == null ? Map.of() : headers;
+    this.timeout = timeout;
+  }
+
+  public HttpVerb getHttpVerb() {
+    return httpVerb;
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public String getFullUrl() {
+    return baseUrl + url;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  /**
+   * The file streamed as the request body, in place of {@link #getBody()}.
+   *
+   * @return The file body, or null when the body is held in memory.
+   */
+  public FileBody getFileBody() {
+    return fileBody;
+  }
+
+  public Map<String, String> getDefaultHeaders() {
+    return defaultHeaders;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public int getTimeout() {
+    return timeout;
+  }
+
+}
@@ -0,0 +1,343 @@
+package pojos;
+
+import com.jayway.jsonpath.DocumentContext;
+import enums.CacheStatus;
+import enums.Configuration;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import loggers.FileLogger;
+import managers.ConfigurationManager;
+import utils.JsonPathUtils;
+import utils.SpillingOutputStream;
+import utils.StreamingJsonMatcher;
+
+/**
+ * Transport independent snapshot of a HTTP response.
+ *
+ * <p>The body is captured once as raw bytes, or as a temporary file when it is larger than
+ * {@link enums.Configuration#RESPONSE_BODY_MEMORY_THRESHOLD}. The decoded text and the parsed JSON
+ * document are built on first use and shared by logging, HAR capture and every assertion step, so
+ * the body is read and parsed at most once per request.
+ *
+ * <p>Assertions on bodies larger than {@link Configuration#STREAMING_ASSERTION_THRESHOLD} read
+ * their JSON Paths with a {@link StreamingJsonMatcher} instead, so the document is never built.
+ */
+public class ApiResponse {
+
+  private static final int PREVIEW_LENGTH = 4096;
+  private static final int DEFAULT_STREAMING_THRESHOLD = 1024 * 1024;
+  private final int status;
+  private final Map<String, String> headers;
+  private final String httpVersion;
+  private final long size;
+  private final long encodedSize;
+  private final Path bodyFile;
+  private final RequestTimings timings;
+  private final CacheStatus cacheStatus;
+  private byte[] body;
+  private String text;
+  private DocumentContext document;
+  private boolean released;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param status      The HTTP status code.
+   * @param headers     The response headers, keyed by lower case header name.
+   * @param body        The response body.
+   * @param httpVersion The protocol version, e.g. {@code HTTP/1.1}.
+   * @param timings     Time spent in each phase of the request.
+   */
+  public ApiResponse(
+      int status,
+      Map<String, String> headers,
+      byte[] body,
+      String httpVersion,
+      RequestTimings timings) {
+    this.status = status;
+    this.headers = Map.copyOf(headers);
+    this.body = body == null ? new byte[0] : body;
+    this.size = this.body.length;
+    this.encodedSize = this.size;
+    this.bodyFile = null;
+    this.httpVersion = httpVersion;
+    this.timings = timings;
+    this.cacheStatus = null;
+  }
+
+  /**
+   * Instantiate from a decoded body captured in a {@link SpillingOutputStream}.
+   *
+   * @param status      The HTTP status code.
+   * @param headers     The response headers, keyed by lower case header name.
+   * @param body        The closed stream holding the decoded response body.
+   * @param encodedSize The size of the body as received, before any content decoding.
+   * @param httpVersion The protocol version, e.g. {@code HTTP/1.1}.
+   * @param timings     Time spent in each phase of the request.
+   */
+  public ApiResponse(
+      int status,
+      Map<String, String> headers,
+      SpillingOutputStream body,
+      long encodedSize,
+      String httpVersion,
+      RequestTimings timings) {
+    this.status = status;
+    this.headers = Map.copyOf(headers);
+    this.body = body.toByteArray();
+    this.size = body.size();
+    this.encodedSize = encodedSize;
+    this.bodyFile = body.getPath();
+    this.httpVersion = httpVersion;
+    this.timings = timings;
+    this.cacheStatus = null;
+  }
+
+  private ApiResponse(ApiResponse response, CacheStatus cacheStatus) {
+    this.status = response.status;
+    this.headers = response.headers;
+    this.body = response.body;
+    this.size = response.size;
+    this.encodedSize = response.encodedSize;
+    this.bodyFile = response.bodyFile;
+    this.httpVersion = response.httpVersion;
+    this.timings = response.timings;
+    this.cacheStatus = cacheStatus;
+  }
+
+  /**
+   * Copies the snapshot, sharing its body, with the way the HTTP cache handled it. Only the copy
+   * should be used and released afterwards.
+   *
+   * @param cacheStatus How the HTTP cache handled the response.
+   * @return The copy.
+   */
+  public ApiResponse withCacheStatus(CacheStatus cacheStatus) {
+    return new ApiResponse(this, cacheStatus);
+  }
+
+  public int status() {
+    return status;
+  }
+
+  public Map<String, String> headers() {
+    return headers;
+  }
+
+  public String httpVersion() {
+    return httpVersion;
+  }
+
+  public RequestTimings timings() {
+    return timings;
+  }
+
+  /**
+   * How the HTTP cache handled the response.
+   *
+   * @return The cache status, or null when the cache is disabled.
+   */
+  public CacheStatus cacheStatus() {
+    return cacheStatus;
+  }
+
+  /**
+   * Size of the body in bytes, available after the snapshot has been released.
+   *
+   * @return The body size.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Size of the body as received, before any content decoding.
+   *
+   * @return The encoded body size.
+   */
+  public long encodedSize() {
+    return encodedSize;
+  }
+
+  /**
+   * Whether the body was too large to hold in memory and was written to a temporary file.
+   *
+   * @return True when the body is on disk.
+   */
+  public boolean isSpilled() {
+    return bodyFile != null;
+  }
+
+  /**
+   * The temporary file holding the body.
+   *
+   * @return The path, or null when the body is held in memory.
+   */
+  public Path bodyFile() {
+    return bodyFile;
+  }
+
+  /**
+   * The raw response body. Reads the whole file when the body has been spilled to disk, prefer
+   * {@link #openBody()} for large bodies.
+   *
+   * @return The body bytes.
+   * @throws IllegalStateException If the snapshot has been released.
+   */
+  public synchronized byte[] body() {
+    checkNotReleased();
+    if (body != null) {
+      return body;
+    }
+    try {
+      return Files.readAllBytes(bodyFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Opens a stream over the response body, reading from disk when the body has been spilled.
+   *
+   * @return The body stream.
+   */
+  public synchronized InputStream openBody() {
+    checkNotReleased();
+    if (body != null) {
+      return new ByteArrayInputStream(body);
+    }
+    try {
+      return Files.newInputStream(bodyFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The body decoded as UTF-8, decoded on first use.
+   *
+   * @return The body text.
+   */
+  public synchronized String text() {
+    if (text == null) {
+      text = new String(body(), StandardCharsets.UTF_8);
+    }
+    return text;
+  }
+
+  /**
+   * The body text for logging and HAR capture, truncated when the body has been spilled to disk.
+   *
+   * @return The full text, or a truncated preview of a spilled body.
+   */
+  public synchronized String preview() {
+    if (!isSpilled()) {
+      return text();
+    }
+    try (var input = openBody()) {
+      var preview = new String(input.readNBytes(PREVIEW_LENGTH), StandardCharsets.UTF_8);
+      if (size <= PREVIEW_LENGTH) {
+        return preview;
+      }
+      return String.format(
+          "%s... [truncated, %d bytes at %s]",
+          preview,
+          size,
+          bodyFile);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The body parsed with {@link JsonPathUtils}, parsed on first use. Spilled bodies are parsed
+   * straight from disk.
+   *
+   * @return The parsed JSON document.
+   */
+  public synchronized DocumentContext document() {
+    if (document == null) {
+      if (isSpilled()) {
+        try (var input = openBody()) {
+          document = JsonPathUtils.parse(input);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      } else {
+        document = JsonPathUtils.parse(text());
+      }
+    }
+    return document;
+  }
+
+  /**
+   * Reads the values at the JSON Paths. A body larger than
+   * {@link Configuration#STREAMING_ASSERTION_THRESHOLD} is matched in a single streaming pass,
+   * unless it has already been parsed or a path can only be evaluated on the document.
+   *
+   * @param jsonPaths The JSON Paths.
+   * @return The values keyed by JSON Path, null where a path is not found.
+   */
+  public synchronized Map<String, Object> read(List<String> jsonPaths) {
+    if (document == null
+        && size > streamingThreshold()
+        && jsonPaths.stream().allMatch(StreamingJsonMatcher::supports)) {
+      var start = System.nanoTime();
+      try (var input = openBody()) {
+        var values = StreamingJsonMatcher.compile(jsonPaths).match(input);
+        FileLogger.instance().get().fine(String.format(
+            "Matched %d JSON Paths in a %d byte body in %d ms",
+            jsonPaths.size(),
+            size,
+            (System.nanoTime() - start) / 1_000_000));
+        return values;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    var parsed = document();
+    var values = new LinkedHashMap<String, Object>();
+    for (var jsonPath : jsonPaths) {
+      values.put(jsonPath, JsonPathUtils.read(parsed, jsonPath));
+    }
+    return values;
+  }
+
+  /**
+   * Drops the body, text and parsed document so their memory can be reclaimed, and deletes the
+   * temporary file of a spilled body.
+   */
+  public synchronized void release() {
+    released = true;
+    body = null;
+    text = null;
+    document = null;
+    if (bodyFile != null) {
+      try {
+        Files.deleteIfExists(bodyFile);
+      } catch (IOException e) {
+        // Left for mvn clean
+      }
+    }
+  }
+
+  private static int streamingThreshold() {
+    return ConfigurationManager.get().configuration()
+        .asInteger(Configuration.STREAMING_ASSERTION_THRESHOLD, DEFAULT_STREAMING_THRESHOLD);
+  }
+
+  private void checkNotReleased() {
+    if (released) {
+      throw new IllegalStateException("Response has been released");
+    }
+  }
+
+}
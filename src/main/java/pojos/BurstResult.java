@@ -0,0 +1,101 @@
+package pojos;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Status codes and latencies of a burst of concurrent requests.
+ */
+public class BurstResult {
+
+  private final int[] statuses;
+  private final long[] sortedLatenciesNanos;
+  private final int errors;
+  private final long elapsedNanos;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param statuses       Status code of each completed request.
+   * @param latenciesNanos Latency of each completed request.
+   * @param errors         Number of requests which failed without a response.
+   * @param elapsedNanos   Wall clock time of the whole burst.
+   */
+  public BurstResult(int[] statuses, long[] latenciesNanos, int errors, long elapsedNanos) {
+    this.statuses = statuses.clone();
+    this.sortedLatenciesNanos = latenciesNanos.clone();
+    Arrays.sort(this.sortedLatenciesNanos);
+    this.errors = errors;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Number of requests which completed with a response.
+   *
+   * @return The completed count.
+   */
+  public int getCompleted() {
+    return statuses.length;
+  }
+
+  public int getErrors() {
+    return errors;
+  }
+
+  /**
+   * Number of responses with the given status code.
+   *
+   * @param status The HTTP status code.
+   * @return The count.
+   */
+  public int countOf(int status) {
+    return (int) Arrays.stream(statuses).filter(s -> s == status).count();
+  }
+
+  /**
+   * Number of responses per status code.
+   *
+   * @return Counts keyed by status code.
+   */
+  public Map<Integer, Integer> getStatusDistribution() {
+    var distribution = new TreeMap<Integer, Integer>();
+    for (var status : statuses) {
+      distribution.merge(status, 1, Integer::sum);
+    }
+    return distribution;
+  }
+
+  /**
+   * Latency percentile using the nearest-rank method.
+   *
+   * @param percentile Between 0 and 100.
+   * @return The latency in milliseconds.
+   */
+  public double percentileMs(double percentile) {
+    if (sortedLatenciesNanos.length == 0) {
+      throw new IllegalStateException("No requests completed");
+    }
+    var rank = (int) Math.ceil(percentile / 100 * sortedLatenciesNanos.length);
+    var index = Math.min(Math.max(rank, 1), sortedLatenciesNanos.length) - 1;
+    return sortedLatenciesNanos[index] / 1_000_000.0;
+  }
+
+  @Override
+  public String toString() {
+    if (sortedLatenciesNanos.length == 0) {
+      return String.format("0 completed, %d errors", errors);
+    }
+    return String.format(
+        "%d completed, %d errors in %d ms, statuses %s, latency p50 %.1f ms, p95 %.1f ms, "
+            + "p99 %.1f ms, max %.1f ms",
+        getCompleted(),
+        errors,
+        elapsedNanos / 1_000_000,
+        getStatusDistribution(),
+        percentileMs(50),
+        percentileMs(95),
+        percentileMs(99),
+        percentileMs(100));
+  }
+}
@@ -12,6 +12,7 @@ public class CucumberScenario {
   private final String name;
   private final String id;
   private final Collection<String> sourceTagNames;
+  private final Scenario scenario;
 
   /**
    * Instantiate from Scenario.
@@ -22,6 +23,7 @@ public class CucumberScenario {
     name = scenario.getName();
     id = scenario.getId();
     sourceTagNames = scenario.getSourceTagNames();
+    this.scenario = scenario;
   }
 
   /**
@@ -31,6 +33,7 @@ public class CucumberScenario {
     this.name = name;
     this.id = id;
     sourceTagNames = Collections.emptyList();
+    scenario = null;
   }
 
   public String getName() {
@@ -45,4 +48,16 @@ public class CucumberScenario {
     return sourceTagNames;
   }
 
+  /**
+   * Attaches plain text to the scenario report. Ignored when not created from a Scenario.
+   *
+   * @param text The text to attach.
+   * @param name The attachment name.
+   */
+  public void attach(String text, String name) {
+    if (scenario != null) {
+      scenario.attach(text, "text/plain", name);
+    }
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package pojos;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Request body which is streamed from a file rather than held in memory. The file is either sent
+ * as is, or as the only part of a {@code multipart/form-data} body.
+ */
+public class FileBody {
+
+  private static final String CRLF = "\r\n";
+  private final Path path;
+  private final String contentType;
+  private final String fieldName;
+  private final String boundary;
+  private final long size;
+  private String sha256;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param path        The file to send.
+   * @param contentType The content type of the file.
+   * @param fieldName   The multipart form field holding the file, or null to send the file as is.
+   */
+  public FileBody(Path path, String contentType, String fieldName) {
+    this.path = path;
+    this.contentType = contentType;
+    this.fieldName = fieldName;
+    this.boundary = fieldName == null
+        ? null
+        : "----boundary" + UUID.randomUUID().toString().replace("-", "");
+    try {
+      this.size = Files.size(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public String getFileName() {
+    return path.getFileName().toString();
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  public boolean isMultipart() {
+    return fieldName != null;
+  }
+
+  /**
+   * Size of the file in bytes.
+   *
+   * @return The file size.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * The {@code Content-Type} header for the request.
+   *
+   * @return The file content type, or the multipart content type with its boundary.
+   */
+  public String getRequestContentType() {
+    return isMultipart() ? "multipart/form-data; boundary=" + boundary : contentType;
+  }
+
+  /**
+   * Length of the request body, including the multipart framing.
+   *
+   * @return The content length.
+   */
+  public long getContentLength() {
+    return isMultipart()
+        ? getMultipartPreamble().length + size + getMultipartEpilogue().length
+        : size;
+  }
+
+  /**
+   * The multipart framing sent before the file content.
+   *
+   * @return The preamble bytes, empty when the file is sent as is.
+   */
+  public byte[] getMultipartPreamble() {
+    if (!isMultipart()) {
+      return new byte[0];
+    }
+    return ("--" + boundary + CRLF
+        + "Content-Disposition: form-data; name=\"" + fieldName + "\"; filename=\""
+        + getFileName() + "\"" + CRLF
+        + "Content-Type: " + contentType + CRLF
+        + CRLF).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The multipart framing sent after the file content.
+   *
+   * @return The epilogue bytes, empty when the file is sent as is.
+   */
+  public byte[] getMultipartEpilogue() {
+    if (!isMultipart()) {
+      return new byte[0];
+    }
+    return (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads the whole request body into memory, for transports which cannot stream a body. The file
+   * is read straight into the result, without intermediate copies.
+   *
+   * @return The request body bytes.
+   */
+  public byte[] toByteArray() {
+    var preamble = getMultipartPreamble();
+    var epilogue = getMultipartEpilogue();
+    var bytes = new byte[Math.toIntExact(getContentLength())];
+    System.arraycopy(preamble, 0, bytes, 0, preamble.length);
+    try (var input = Files.newInputStream(path)) {
+      input.readNBytes(bytes, preamble.length, Math.toIntExact(size));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    System.arraycopy(epilogue, 0, bytes, bytes.length - epilogue.length, epilogue.length);
+    return bytes;
+  }
+
+  /**
+   * SHA-256 of the file, computed on first use by streaming the file.
+   *
+   * @return The hex encoded hash.
+   */
+  public synchronized String sha256() {
+    if (sha256 == null) {
+      try (var input = new DigestInputStream(
+          Files.newInputStream(path), MessageDigest.getInstance("SHA-256"))) {
+        input.transferTo(OutputStream.nullOutputStream());
+        sha256 = HexFormat.of().formatHex(input.getMessageDigest().digest());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return sha256;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s%s (%s, %d bytes)",
+        isMultipart() ? "multipart field " + fieldName + " with file " : "file ",
+        path,
+        contentType,
+        size);
+  }
+}
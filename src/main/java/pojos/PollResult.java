@@ -0,0 +1,52 @@
+package pojos;
+
+/**
+ * Outcome of polling a request until a condition matched or the deadline passed.
+ */
+public class PollResult {
+
+  private final ApiResponse response;
+  private final int attempts;
+  private final long elapsedMs;
+  private final boolean matched;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param response  The last response received.
+   * @param attempts  The number of requests sent.
+   * @param elapsedMs Time from the first request until the condition matched or polling stopped.
+   * @param matched   Whether the condition matched before the deadline.
+   */
+  public PollResult(ApiResponse response, int attempts, long elapsedMs, boolean matched) {
+    this.response = response;
+    this.attempts = attempts;
+    this.elapsedMs = elapsedMs;
+    this.matched = matched;
+  }
+
+  public ApiResponse getResponse() {
+    return response;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public long getElapsedMs() {
+    return elapsedMs;
+  }
+
+  public boolean isMatched() {
+    return matched;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s after %d attempt(s) in %d ms",
+        matched ? "Matched" : "Not matched",
+        attempts,
+        elapsedMs);
+  }
+}
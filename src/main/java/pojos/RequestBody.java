@@ -0,0 +1,127 @@
+package pojos;
+
+import com.google.gson.JsonElement;
+import com.jayway.jsonpath.DocumentContext;
+import errors.ConfigurationError;
+import java.nio.charset.StandardCharsets;
+import utils.Compression;
+import utils.JsonPathUtils;
+import utils.JsonSerializer;
+
+/**
+ * The request body built up by the steps of a scenario: either a JSON document, changed in place
+ * by each step, or a file. Cucumber creates one instance per scenario.
+ *
+ * <p>The JSON text is serialised and encoded when the body is first sent, and the bytes are reused
+ * by later requests, polling attempts and bursts until the document is next changed.
+ */
+public class RequestBody {
+
+  private DocumentContext document;
+  private FileBody fileBody;
+  private String text;
+  private byte[] bytes;
+  private byte[] gzipped;
+
+  /**
+   * Replaces the body with a JSON document, which is changed in place from then on.
+   *
+   * @param json The JSON tree.
+   */
+  public void setJson(JsonElement json) {
+    this.document = JsonPathUtils.parse(json);
+    this.fileBody = null;
+    clearEncoded();
+  }
+
+  /**
+   * Replaces the body with a file.
+   *
+   * @param fileBody The file to send.
+   */
+  public void setFile(FileBody fileBody) {
+    this.fileBody = fileBody;
+    this.document = null;
+    clearEncoded();
+  }
+
+  /**
+   * The document, for a step to change. The serialised text and bytes are dropped, as the
+   * document may be changed through the returned context.
+   *
+   * @return The live document.
+   * @throws ConfigurationError If there is no JSON body.
+   */
+  public DocumentContext edit() {
+    if (document == null) {
+      throw new ConfigurationError("Step can only be applied once a body has been set");
+    }
+    clearEncoded();
+    return document;
+  }
+
+  /**
+   * The JSON text, serialised on first use after the document was changed.
+   *
+   * @return The JSON text, or null when there is no JSON body.
+   */
+  public String text() {
+    if (text == null && document != null) {
+      text = document.jsonString();
+    }
+    return text;
+  }
+
+  /**
+   * The JSON text encoded as UTF-8, encoded on first use after the document was changed.
+   *
+   * @return The bytes, or null when there is no JSON body. Must not be modified.
+   */
+  public byte[] bytes() {
+    if (bytes == null && text() != null) {
+      bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+    return bytes;
+  }
+
+  /**
+   * The encoded JSON text, gzip compressed on first use after the document was changed.
+   *
+   * @return The compressed bytes, or null when there is no JSON body. Must not be modified.
+   */
+  public byte[] gzipped() {
+    if (gzipped == null && bytes() != null) {
+      gzipped = Compression.gzip(bytes);
+    }
+    return gzipped;
+  }
+
+  /**
+   * The file sent as the body, in place of {@link #text()}.
+   *
+   * @return The file, or null when the body is not a file.
+   */
+  public FileBody getFileBody() {
+    return fileBody;
+  }
+
+  /**
+   * Describes the body for the log: the file, or the indented JSON.
+   *
+   * @return The description.
+   */
+  @Override
+  public String toString() {
+    if (fileBody != null) {
+      return fileBody.toString();
+    }
+    return document == null ? "none" : JsonSerializer.prettyPrint((JsonElement) document.json());
+  }
+
+  private void clearEncoded() {
+    text = null;
+    bytes = null;
+    gzipped = null;
+  }
+
+}
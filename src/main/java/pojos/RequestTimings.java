@@ -0,0 +1,127 @@
+package pojos;
+
+/**
+ * Time spent in each phase of a HTTP request, following the HAR timings model. Phases which the
+ * transport could not observe are -1.
+ */
+public class RequestTimings {
+
+  public static final long NOT_MEASURED = -1;
+  private final long blockedNanos;
+  private final long dnsNanos;
+  private final long connectNanos;
+  private final long sslNanos;
+  private final long sendNanos;
+  private final long waitNanos;
+  private final long receiveNanos;
+
+  /**
+   * Instantiate from properties, each in nanoseconds or {@link #NOT_MEASURED}.
+   *
+   * @param blockedNanos Time queued for a connection.
+   * @param dnsNanos     Time resolving the host name.
+   * @param connectNanos Time opening the connection, including the TLS handshake.
+   * @param sslNanos     Time spent on the TLS handshake.
+   * @param sendNanos    Time sending the request.
+   * @param waitNanos    Time waiting for the first byte of the response.
+   * @param receiveNanos Time receiving the response body.
+   */
+  public RequestTimings(
+      long blockedNanos,
+      long dnsNanos,
+      long connectNanos,
+      long sslNanos,
+      long sendNanos,
+      long waitNanos,
+      long receiveNanos) {
+    this.blockedNanos = blockedNanos;
+    this.dnsNanos = dnsNanos;
+    this.connectNanos = connectNanos;
+    this.sslNanos = sslNanos;
+    this.sendNanos = sendNanos;
+    this.waitNanos = waitNanos;
+    this.receiveNanos = receiveNanos;
+  }
+
+  public long getBlockedNanos() {
+    return blockedNanos;
+  }
+
+  public long getDnsNanos() {
+    return dnsNanos;
+  }
+
+  public long getConnectNanos() {
+    return connectNanos;
+  }
+
+  public long getSslNanos() {
+    return sslNanos;
+  }
+
+  public long getSendNanos() {
+    return sendNanos;
+  }
+
+  public long getWaitNanos() {
+    return waitNanos;
+  }
+
+  public long getReceiveNanos() {
+    return receiveNanos;
+  }
+
+  /**
+   * Whether a new connection was opened for this request.
+   *
+   * @return True when the connect phase was measured.
+   */
+  public boolean isNewConnection() {
+    return connectNanos != NOT_MEASURED;
+  }
+
+  /**
+   * Sum of the measured phases. The TLS handshake is already part of the connect phase.
+   *
+   * @return The total time in nanoseconds.
+   */
+  public long getTotalNanos() {
+    return measured(blockedNanos)
+        + measured(dnsNanos)
+        + measured(connectNanos)
+        + measured(sendNanos)
+        + measured(waitNanos)
+        + measured(receiveNanos);
+  }
+
+  /**
+   * Converts a phase to whole milliseconds for HAR capture, keeping {@link #NOT_MEASURED}.
+   *
+   * @param nanos The phase in nanoseconds.
+   * @return The phase in milliseconds.
+   */
+  public static long toMillis(long nanos) {
+    return nanos == NOT_MEASURED ? NOT_MEASURED : Math.round(nanos / 1_000_000.0);
+  }
+
+  private static long measured(long nanos) {
+    return Math.max(nanos, 0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "blocked %s, dns %s, connect %s, ssl %s, send %s, wait %s, receive %s",
+        format(blockedNanos),
+        format(dnsNanos),
+        format(connectNanos),
+        format(sslNanos),
+        format(sendNanos),
+        format(waitNanos),
+        format(receiveNanos));
+  }
+
+  static String format(long nanos) {
+    return nanos == NOT_MEASURED ? "n/a" : String.format("%.1f ms", nanos / 1_000_000.0);
+  }
+}
@@ -0,0 +1,70 @@
+package pojos;
+
+/**
+ * Per-phase request timings aggregated over a scenario, so that connection reuse and slow
+ * handshakes are visible without opening the HAR file.
+ */
+public class TimingSummary {
+
+  private static final String[] PHASES = {
+      "blocked", "dns", "connect", "ssl", "send", "wait", "receive"};
+  private final long[] totals = new long[PHASES.length];
+  private final long[] maximums = new long[PHASES.length];
+  private final int[] counts = new int[PHASES.length];
+  private int requests;
+  private int newConnections;
+
+  /**
+   * Adds the timings of one request.
+   *
+   * @param timings The request timings.
+   */
+  public void add(RequestTimings timings) {
+    requests++;
+    if (timings.isNewConnection()) {
+      newConnections++;
+    }
+    var phases = new long[]{
+        timings.getBlockedNanos(),
+        timings.getDnsNanos(),
+        timings.getConnectNanos(),
+        timings.getSslNanos(),
+        timings.getSendNanos(),
+        timings.getWaitNanos(),
+        timings.getReceiveNanos()};
+    for (var i = 0; i < phases.length; i++) {
+      if (phases[i] != RequestTimings.NOT_MEASURED) {
+        totals[i] += phases[i];
+        maximums[i] = Math.max(maximums[i], phases[i]);
+        counts[i]++;
+      }
+    }
+  }
+
+  public int getRequests() {
+    return requests;
+  }
+
+  public int getNewConnections() {
+    return newConnections;
+  }
+
+  @Override
+  public String toString() {
+    // Transports which cannot observe connection setup measure no blocked phase either
+    var summary = new StringBuilder(counts[0] > 0
+        ? String.format("%d request(s), %d new connection(s)", requests, newConnections)
+        : String.format("%d request(s), connection setup not observable", requests));
+    for (var i = 0; i < PHASES.length; i++) {
+      if (counts[i] > 0) {
+        summary.append(String.format(
+            "%n%-8s avg %s, max %s over %d request(s)",
+            PHASES[i],
+            RequestTimings.format(totals[i] / counts[i]),
+            RequestTimings.format(maximums[i]),
+            counts[i]));
+      }
+    }
+    return summary.toString();
+  }
+}
@@ -0,0 +1,367 @@
+package transports;
+
+import enums.Configuration;
+import enums.HttpVerb;
+import errors.ConfigurationError;
+import exceptions.HttpTransportException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import managers.ConfigurationManager;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.client5.http.ssl.TrustAllStrategy;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.RequestChannel;
+import org.apache.hc.core5.http.nio.entity.FileEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.Timeout;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+import utils.Compression;
+import utils.RequestTimer;
+import utils.SpillingOutputStream;
+
+/**
+ * Sends requests through a shared Apache HttpClient 5 async client, backed by a connection pool
+ * which is shared across all scenario threads. HTTP/2 is negotiated over TLS where the server
+ * supports it. Response bodies are streamed into a {@link SpillingOutputStream} and decoded once
+ * received. Each phase of the request, including DNS, connect and TLS for new connections, is
+ * recorded by a {@link RequestTimer}.
+ */
+public class ApacheAsyncTransport implements HttpTransport {
+
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+  private static final int DEFAULT_MAX_CONNECTIONS = 100;
+  private final PoolingAsyncClientConnectionManager connectionManager;
+  private final CloseableHttpAsyncClient client;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * Creates and starts the async client.
+   */
+  public ApacheAsyncTransport() {
+    var configuration = ConfigurationManager.get().configuration();
+    try {
+      connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+          .setMaxConnPerRoute(configuration.asInteger(
+              Configuration.HTTP_MAX_CONNECTIONS_PER_ROUTE,
+              DEFAULT_MAX_CONNECTIONS_PER_ROUTE))
+          .setMaxConnTotal(configuration.asInteger(
+              Configuration.HTTP_MAX_CONNECTIONS,
+              DEFAULT_MAX_CONNECTIONS))
+          .setDefaultTlsConfig(TlsConfig.custom()
+              .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+              .build())
+          .setTlsStrategy(ClientTlsStrategyBuilder.create()
+              .setSslContext(SSLContexts.custom()
+                  .loadTrustMaterial(TrustAllStrategy.INSTANCE)
+                  .build())
+              .setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+              .build())
+          .build();
+    } catch (GeneralSecurityException e) {
+      throw new ConfigurationError(e);
+    }
+    client = HttpAsyncClients.custom()
+        .setConnectionManager(new TimedConnectionManager(connectionManager))
+        .build();
+    client.start();
+  }
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    var timeout = Timeout.ofMilliseconds(request.getTimeout());
+    var builder = SimpleRequestBuilder.create(request.getHttpVerb().toString())
+        .setUri(request.getFullUrl())
+        .setRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(timeout)
+            .setResponseTimeout(timeout)
+            .build());
+    request.getDefaultHeaders().forEach(builder::setHeader);
+    request.getHeaders().forEach(builder::setHeader);
+
+    var timer = new RequestTimer();
+    var context = HttpClientContext.create();
+    context.setAttribute(TimedConnectionManager.TIMER_ATTRIBUTE, timer);
+
+    inFlight.incrementAndGet();
+    try {
+      return client.execute(
+              new TimedRequestProducer(requestProducer(request, builder), timer),
+              new SpillingResponseConsumer(timer),
+              context,
+              null)
+          .get();
+    } catch (ExecutionException e) {
+      throw new HttpTransportException(
+          String.format("%s %s failed", request.getHttpVerb(), request.getFullUrl()),
+          e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HttpTransportException("Interrupted waiting for response", e);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * File bodies are streamed from disk by an entity producer, other bodies are sent from memory.
+   */
+  private AsyncRequestProducer requestProducer(ApiRequest request, SimpleRequestBuilder builder) {
+    if (request.getHttpVerb() == HttpVerb.GET) {
+      return SimpleRequestProducer.create(builder.build());
+    }
+    var fileBody = request.getFileBody();
+    if (fileBody != null) {
+      builder.setHeader(HttpHeaders.CONTENT_TYPE, fileBody.getRequestContentType());
+      var entity = fileBody.isMultipart()
+          ? new MultipartFileEntityProducer(fileBody)
+          : new FileEntityProducer(
+              fileBody.getPath().toFile(),
+              ContentType.parse(fileBody.getContentType()));
+      return new BasicRequestProducer(builder.build(), entity);
+    }
+    if (request.getBody() != null) {
+      builder.setBody(request.getBody(), ContentType.APPLICATION_JSON);
+    }
+    return SimpleRequestProducer.create(builder.build());
+  }
+
+  /**
+   * Connection pool gauges, logged after each request.
+   *
+   * @return The pool lease, in-flight and idle gauges.
+   */
+  @Override
+  public String statistics() {
+    var stats = connectionManager.getTotalStats();
+    return String.format(
+        "Connection pool: leased %d, idle %d, pending %d, max %d, in-flight requests %d",
+        stats.getLeased(),
+        stats.getAvailable(),
+        stats.getPending(),
+        stats.getMax(),
+        inFlight.get());
+  }
+
+  @Override
+  public void close() {
+    client.close(CloseMode.GRACEFUL);
+  }
+
+  /**
+   * Marks the send phase on the request timer.
+   */
+  private static class TimedRequestProducer implements AsyncRequestProducer {
+
+    private final AsyncRequestProducer delegate;
+    private final RequestTimer timer;
+
+    private TimedRequestProducer(AsyncRequestProducer delegate, RequestTimer timer) {
+      this.delegate = delegate;
+      this.timer = timer;
+    }
+
+    @Override
+    public void sendRequest(RequestChannel channel, HttpContext context)
+        throws HttpException, IOException {
+      timer.sendStarted();
+      delegate.sendRequest(channel, context);
+      timer.sent();
+    }
+
+    @Override
+    public int available() {
+      return delegate.available();
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+      delegate.produce(channel);
+      timer.sent();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return delegate.isRepeatable();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+      delegate.failed(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+      delegate.releaseResources();
+    }
+  }
+
+  /**
+   * Streams the response body into a {@link SpillingOutputStream} as it arrives.
+   */
+  private static class SpillingResponseConsumer extends AbstractBinResponseConsumer<ApiResponse> {
+
+    private final SpillingOutputStream body = SpillingOutputStream.forResponseBody();
+    private final Map<String, String> headers = new HashMap<>();
+    private final RequestTimer timer;
+    private int status;
+    private String httpVersion;
+    private boolean delivered;
+
+    private SpillingResponseConsumer(RequestTimer timer) {
+      this.timer = timer;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) {
+      timer.firstByte();
+      status = response.getCode();
+      httpVersion = response.getVersion() != null ? response.getVersion().format() : null;
+      for (var header : response.getHeaders()) {
+        headers.merge(
+            header.getName().toLowerCase(Locale.ROOT),
+            header.getValue(),
+            (existing, value) -> existing + ", " + value);
+      }
+    }
+
+    @Override
+    protected int capacityIncrement() {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+      if (src.hasArray()) {
+        body.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        src.position(src.limit());
+      } else {
+        var bytes = new byte[src.remaining()];
+        src.get(bytes);
+        body.write(bytes);
+      }
+      if (endOfStream) {
+        body.close();
+      }
+    }
+
+    @Override
+    protected ApiResponse buildResult() {
+      timer.completed();
+      try {
+        body.close();
+        var contentEncoding = headers.get(HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ROOT));
+        var decoded = contentEncoding == null ? body : decode(contentEncoding);
+        var response = new ApiResponse(
+            status,
+            headers,
+            decoded,
+            body.size(),
+            httpVersion,
+            timer.timings());
+        delivered = true;
+        return response;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * The async client does not decode content, so the received body is decoded as a stream into
+     * a second {@link SpillingOutputStream} and the encoded copy discarded.
+     */
+    private SpillingOutputStream decode(String contentEncoding) throws IOException {
+      var decoded = SpillingOutputStream.forResponseBody();
+      try (var input = Compression.decode(encodedBody(), contentEncoding); decoded) {
+        input.transferTo(decoded);
+      } catch (IOException | RuntimeException e) {
+        deleteSpilled(decoded);
+        throw e;
+      } finally {
+        if (body.isSpilled()) {
+          Files.deleteIfExists(body.getPath());
+        }
+      }
+      return decoded;
+    }
+
+    private InputStream encodedBody() throws IOException {
+      return body.isSpilled()
+          ? Files.newInputStream(body.getPath())
+          : new ByteArrayInputStream(body.toByteArray());
+    }
+
+    @Override
+    public void failed(Exception cause) {
+      super.failed(cause);
+      discard();
+    }
+
+    /**
+     * Called once the exchange ends, however it ends. A body which did not become an
+     * {@link ApiResponse}, because the request failed or was cancelled, is deleted from disk.
+     */
+    @Override
+    public void releaseResources() {
+      if (delivered) {
+        try {
+          body.close();
+        } catch (IOException e) {
+          // Nothing further to release
+        }
+      } else {
+        discard();
+      }
+    }
+
+    private void discard() {
+      try {
+        body.close();
+      } catch (IOException e) {
+        // Deleted below regardless
+      }
+      deleteSpilled(body);
+    }
+
+    private static void deleteSpilled(SpillingOutputStream stream) {
+      if (stream.isSpilled()) {
+        try {
+          Files.deleteIfExists(stream.getPath());
+        } catch (IOException e) {
+          // Left for mvn clean
+        }
+      }
+    }
+  }
+
+}
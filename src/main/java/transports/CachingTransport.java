@@ -0,0 +1,348 @@
+package transports;
+
+import enums.CacheStatus;
+import enums.HttpVerb;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.core5.http.HttpHeaders;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+import utils.RequestTimer;
+
+/**
+ * Suite wide cache of GET responses in front of another transport, following the private cache
+ * rules of RFC 9111.
+ *
+ * <p>Responses are keyed by URL, including the query string, and every request header. Fresh
+ * entries are served without a request; stale entries with an {@code ETag} or
+ * {@code Last-Modified} validator are revalidated with a conditional request. Entries are evicted
+ * least recently used first once the entry count or total body size is exceeded.
+ */
+public class CachingTransport implements HttpTransport {
+
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_NOT_MODIFIED = 304;
+  private final HttpTransport delegate;
+  private final int maxEntries;
+  private final long maxBytes;
+  private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong revalidations = new AtomicLong();
+  private final AtomicLong bypasses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private long bytes;
+
+  /**
+   * Wraps the transport with a cache.
+   *
+   * @param delegate   The transport which sends requests the cache cannot answer.
+   * @param maxEntries The maximum number of cached responses.
+   * @param maxBytes   The maximum total size of cached response bodies.
+   */
+  public CachingTransport(HttpTransport delegate, int maxEntries, long maxBytes) {
+    this.delegate = delegate;
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    if (request.getHttpVerb() != HttpVerb.GET
+        || hasDirective(requestCacheControl(request), "no-store")) {
+      bypasses.incrementAndGet();
+      return delegate.send(request).withCacheStatus(CacheStatus.BYPASS);
+    }
+
+    var key = CacheKey.of(request);
+    var entry = lookup(key);
+    if (entry != null && entry.isFresh()
+        && !hasDirective(requestCacheControl(request), "no-cache")) {
+      hits.incrementAndGet();
+      entry.hitCount.incrementAndGet();
+      return entry.toResponse(CacheStatus.HIT);
+    }
+
+    if (entry != null && entry.hasValidator()) {
+      var response = delegate.send(conditional(request, entry));
+      if (response.status() == HTTP_NOT_MODIFIED) {
+        response.release();
+        revalidations.incrementAndGet();
+        var refreshed = entry.refresh(response.headers());
+        store(key, refreshed);
+        return refreshed.toResponse(CacheStatus.REVALIDATED, response);
+      }
+      return storeIfCacheable(key, response);
+    }
+
+    return storeIfCacheable(key, delegate.send(request));
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return delegate.isThreadSafe();
+  }
+
+  /**
+   * The delegate's statistics followed by the cache counters.
+   *
+   * @return The statistics.
+   */
+  @Override
+  public String statistics() {
+    int count;
+    long size;
+    synchronized (this) {
+      count = entries.size();
+      size = bytes;
+    }
+    var statistics = String.format(
+        "HTTP cache: hits %d, misses %d, revalidations %d, bypasses %d, evictions %d, "
+            + "entries %d, %d bytes",
+        hits.get(),
+        misses.get(),
+        revalidations.get(),
+        bypasses.get(),
+        evictions.get(),
+        count,
+        size);
+    var delegateStatistics = delegate.statistics();
+    return delegateStatistics == null
+        ? statistics
+        : delegateStatistics + System.lineSeparator() + statistics;
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  private ApiResponse storeIfCacheable(CacheKey key, ApiResponse response) {
+    misses.incrementAndGet();
+    var entry = CacheEntry.of(response);
+    if (entry == null || entry.size > maxBytes) {
+      remove(key);
+    } else {
+      store(key, entry);
+    }
+    return response.withCacheStatus(CacheStatus.MISS);
+  }
+
+  private synchronized CacheEntry lookup(CacheKey key) {
+    return entries.get(key);
+  }
+
+  private synchronized void store(CacheKey key, CacheEntry entry) {
+    var previous = entries.put(key, entry);
+    if (previous != null) {
+      bytes -= previous.size;
+    }
+    bytes += entry.size;
+    var iterator = entries.values().iterator();
+    while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+      bytes -= iterator.next().size;
+      iterator.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  private synchronized void remove(CacheKey key) {
+    var previous = entries.remove(key);
+    if (previous != null) {
+      bytes -= previous.size;
+    }
+  }
+
+  private ApiRequest conditional(ApiRequest request, CacheEntry entry) {
+    var headers = new HashMap<>(request.getHeaders());
+    if (entry.etag != null) {
+      headers.put(HttpHeaders.IF_NONE_MATCH, entry.etag);
+    }
+    if (entry.lastModified != null) {
+      headers.put(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+    }
+    return new ApiRequest(
+        request.getHttpVerb(),
+        request.getBaseUrl(),
+        request.getUrl(),
+        (byte[]) null,
+        request.getDefaultHeaders(),
+        headers,
+        request.getTimeout());
+  }
+
+  private static String requestCacheControl(ApiRequest request) {
+    return request.getHeaders().entrySet().stream()
+        .filter(header -> header.getKey().equalsIgnoreCase(HttpHeaders.CACHE_CONTROL))
+        .map(Map.Entry::getValue)
+        .findFirst()
+        .orElse(null);
+  }
+
+  private static boolean hasDirective(String cacheControl, String directive) {
+    return directive(cacheControl, directive) != null;
+  }
+
+  /**
+   * Finds a {@code Cache-Control} directive.
+   *
+   * @return The directive value, an empty string for a directive without a value, or null when
+   *     the directive is absent.
+   */
+  private static String directive(String cacheControl, String directive) {
+    if (cacheControl == null) {
+      return null;
+    }
+    for (var part : cacheControl.split(",")) {
+      var nameValue = part.trim().split("=", 2);
+      if (nameValue[0].trim().equalsIgnoreCase(directive)) {
+        return nameValue.length == 2 ? nameValue[1].trim().replace("\"", "") : "";
+      }
+    }
+    return null;
+  }
+
+  private record CacheKey(String url, Map<String, String> headers) {
+
+    private static CacheKey of(ApiRequest request) {
+      var headers = new TreeMap<String, String>();
+      request.getDefaultHeaders().forEach(
+          (name, value) -> headers.put(name.toLowerCase(Locale.ROOT), value));
+      request.getHeaders().forEach(
+          (name, value) -> headers.put(name.toLowerCase(Locale.ROOT), value));
+      return new CacheKey(request.getFullUrl(), headers);
+    }
+  }
+
+  private static final class CacheEntry {
+
+    private final ApiResponse response;
+    private final String etag;
+    private final String lastModified;
+    private final long storedNanos;
+    private final long freshNanos;
+    private final long size;
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private CacheEntry(ApiResponse response, long freshNanos) {
+      this.response = response;
+      this.etag = response.headers().get(HttpHeaders.ETAG.toLowerCase(Locale.ROOT));
+      this.lastModified = response.headers().get(
+          HttpHeaders.LAST_MODIFIED.toLowerCase(Locale.ROOT));
+      this.storedNanos = System.nanoTime();
+      this.freshNanos = freshNanos;
+      this.size = response.size();
+    }
+
+    /**
+     * Only complete 200 responses held in memory which may be stored and can either be served
+     * while fresh or revalidated are cached.
+     */
+    private static CacheEntry of(ApiResponse response) {
+      var cacheControl = response.headers().get(
+          HttpHeaders.CACHE_CONTROL.toLowerCase(Locale.ROOT));
+      if (response.status() != HTTP_OK
+          || response.isSpilled()
+          || hasDirective(cacheControl, "no-store")
+          || "*".equals(response.headers().get(HttpHeaders.VARY.toLowerCase(Locale.ROOT)))) {
+        return null;
+      }
+      var entry = new CacheEntry(response, freshness(response.headers(), cacheControl));
+      if (entry.freshNanos <= 0 && !entry.hasValidator()) {
+        return null;
+      }
+      return entry;
+    }
+
+    private static long freshness(Map<String, String> headers, String cacheControl) {
+      if (hasDirective(cacheControl, "no-cache")) {
+        return 0;
+      }
+      var age = parseLong(headers.get(HttpHeaders.AGE.toLowerCase(Locale.ROOT)), 0);
+      var maxAge = directive(cacheControl, "max-age");
+      if (maxAge != null) {
+        return Duration.ofSeconds(Math.max(parseLong(maxAge, 0) - age, 0)).toNanos();
+      }
+      var expires = parseDate(headers.get(HttpHeaders.EXPIRES.toLowerCase(Locale.ROOT)));
+      if (expires != null) {
+        var date = parseDate(headers.get(HttpHeaders.DATE.toLowerCase(Locale.ROOT)));
+        var lifetime = Duration.between(date != null ? date : ZonedDateTime.now(), expires);
+        return Math.max(lifetime.minusSeconds(age).toNanos(), 0);
+      }
+      return 0;
+    }
+
+    private boolean isFresh() {
+      return System.nanoTime() - storedNanos < freshNanos;
+    }
+
+    private boolean hasValidator() {
+      return etag != null || lastModified != null;
+    }
+
+    /**
+     * Applies the headers of a 304 response, which carry the new freshness of the entry.
+     */
+    private CacheEntry refresh(Map<String, String> notModifiedHeaders) {
+      var headers = new HashMap<>(response.headers());
+      headers.putAll(notModifiedHeaders);
+      headers.remove(HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT));
+      var refreshed = new ApiResponse(
+          response.status(),
+          headers,
+          response.body(),
+          response.httpVersion(),
+          response.timings());
+      var entry = new CacheEntry(refreshed, freshness(
+          headers,
+          headers.get(HttpHeaders.CACHE_CONTROL.toLowerCase(Locale.ROOT))));
+      entry.hitCount.set(hitCount.get());
+      return entry;
+    }
+
+    private ApiResponse toResponse(CacheStatus cacheStatus) {
+      return toResponse(cacheStatus, null);
+    }
+
+    /**
+     * A new snapshot sharing the cached body, timed as the revalidation request when there was
+     * one.
+     */
+    private ApiResponse toResponse(CacheStatus cacheStatus, ApiResponse revalidation) {
+      return new ApiResponse(
+          response.status(),
+          response.headers(),
+          response.body(),
+          response.httpVersion(),
+          revalidation != null ? revalidation.timings() : new RequestTimer().timings())
+          .withCacheStatus(cacheStatus);
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+      try {
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+      } catch (NumberFormatException e) {
+        return defaultValue;
+      }
+    }
+
+    private static ZonedDateTime parseDate(String value) {
+      try {
+        return value == null
+            ? null
+            : ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+      } catch (DateTimeParseException e) {
+        return null;
+      }
+    }
+  }
+
+}
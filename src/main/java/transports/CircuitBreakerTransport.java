@@ -0,0 +1,240 @@
+package transports;
+
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.TimeoutError;
+import enums.CircuitState;
+import exceptions.CircuitOpenException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+
+/**
+ * Fails requests immediately once the API has been unreachable for a number of consecutive
+ * requests, rather than letting every remaining request wait for its timeout.
+ *
+ * <p>Connection failures and timeouts, reported by the transports as exceptions, count as
+ * failures; any response counts as a success. Other exceptions, such as a body which cannot be
+ * decoded, say nothing about whether the API is up and count as neither. The breaker opens after
+ * the configured number of
+ * consecutive failures. Once the open duration has passed, a single half-open probe request is
+ * let through: the breaker closes if it succeeds and opens again if it fails.
+ */
+public class CircuitBreakerTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+  private final Breaker breaker;
+
+  /**
+   * Wraps the transport with a circuit breaker.
+   *
+   * @param delegate         The transport which sends requests while the breaker is closed.
+   * @param failureThreshold The number of consecutive failures which opens the breaker.
+   * @param openDurationMs   How long in milliseconds the breaker stays open before probing.
+   */
+  public CircuitBreakerTransport(
+      HttpTransport delegate,
+      int failureThreshold,
+      long openDurationMs) {
+    this(delegate, new Breaker(failureThreshold, openDurationMs));
+  }
+
+  private CircuitBreakerTransport(HttpTransport delegate, Breaker breaker) {
+    this.delegate = delegate;
+    this.breaker = breaker;
+  }
+
+  /**
+   * Wraps another transport with this circuit breaker, so that failures through either transport
+   * open the breaker for both.
+   *
+   * @param other The transport to wrap.
+   * @return The wrapped transport.
+   */
+  public CircuitBreakerTransport sharing(HttpTransport other) {
+    return new CircuitBreakerTransport(other, breaker);
+  }
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    var probe = breaker.permit(request);
+    ApiResponse response;
+    try {
+      response = delegate.send(request);
+    } catch (RuntimeException e) {
+      if (isUnreachable(e)) {
+        breaker.failed(e, probe);
+      } else {
+        breaker.abandoned(probe);
+      }
+      throw e;
+    }
+    breaker.succeeded();
+    return response;
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return delegate.isThreadSafe();
+  }
+
+  /**
+   * The delegate's statistics followed by the breaker state.
+   *
+   * @return The statistics.
+   */
+  @Override
+  public String statistics() {
+    var delegateStatistics = delegate.statistics();
+    return delegateStatistics == null
+        ? summary()
+        : delegateStatistics + System.lineSeparator() + summary();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  public CircuitState state() {
+    return breaker.state;
+  }
+
+  /**
+   * Describes the breaker state, for the run summary.
+   *
+   * @return The summary.
+   */
+  public String summary() {
+    return breaker.summary();
+  }
+
+  /**
+   * Whether the request failed because the API could not be connected to or did not respond in
+   * time. Playwright only reports the cause in the message of its exception.
+   */
+  private static boolean isUnreachable(RuntimeException failure) {
+    if (failure instanceof PlaywrightException) {
+      var message = failure.getMessage() == null
+          ? ""
+          : failure.getMessage().toLowerCase(Locale.ROOT);
+      return failure instanceof TimeoutError
+          || message.contains("econnrefused")
+          || message.contains("etimedout")
+          || message.contains("timed out")
+          || message.contains("timeout");
+    }
+    for (var cause = failure.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConnectException
+          || cause instanceof ConnectTimeoutException
+          || cause instanceof HttpTimeoutException
+          || cause instanceof SocketTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Breaker {
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean probing;
+    private RuntimeException lastFailure;
+
+    private Breaker(int failureThreshold, long openDurationMs) {
+      this.failureThreshold = failureThreshold;
+      this.openDurationNanos = openDurationMs * 1000_000;
+    }
+
+    /**
+     * Lets the request through or fails it fast.
+     *
+     * @return Whether the request is the half-open probe.
+     */
+    private boolean permit(ApiRequest request) {
+      return state != CircuitState.CLOSED && permitWhileOpen(request);
+    }
+
+    private synchronized boolean permitWhileOpen(ApiRequest request) {
+      if (state == CircuitState.CLOSED) {
+        return false;
+      }
+      if (state == CircuitState.OPEN && System.nanoTime() - openUntil >= 0) {
+        state = CircuitState.HALF_OPEN;
+      }
+      if (state == CircuitState.HALF_OPEN && !probing) {
+        probing = true;
+        return true;
+      }
+      rejected.incrementAndGet();
+      throw new CircuitOpenException(
+          String.format(
+              "Circuit breaker %s after %d consecutive failure(s), not sending %s %s. "
+                  + "Last failure: %s",
+              state,
+              consecutiveFailures,
+              request.getHttpVerb(),
+              request.getFullUrl(),
+              lastFailure.getMessage()),
+          lastFailure);
+    }
+
+    private synchronized void succeeded() {
+      consecutiveFailures = 0;
+      probing = false;
+      state = CircuitState.CLOSED;
+    }
+
+    private synchronized void failed(RuntimeException failure, boolean probe) {
+      consecutiveFailures++;
+      lastFailure = failure;
+      if (probe) {
+        probing = false;
+      }
+      if (failureThreshold > 0
+          && (probe || state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)) {
+        state = CircuitState.OPEN;
+        openUntil = System.nanoTime() + openDurationNanos;
+        opened.incrementAndGet();
+      }
+    }
+
+    /**
+     * A probe which failed without showing the API to be unreachable, such as an unreadable
+     * request body or a response which cannot be decoded, proves nothing, so another request may
+     * probe.
+     */
+    private synchronized void abandoned(boolean probe) {
+      if (probe) {
+        probing = false;
+      }
+    }
+
+    private synchronized String summary() {
+      var summary = new StringBuilder("Circuit breaker ").append(state);
+      if (state == CircuitState.OPEN) {
+        summary.append(String.format(
+            ", probing in %d ms",
+            Math.max(openUntil - System.nanoTime(), 0) / 1000_000));
+      }
+      if (opened.get() > 0) {
+        summary.append(String.format(
+            ", opened %d time(s), %d request(s) failed fast",
+            opened.get(),
+            rejected.get()));
+      }
+      return summary.toString();
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+package transports;
+
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+
+/**
+ * A backend capable of sending HTTP requests, selected by
+ * {@link enums.Configuration#HTTP_TRANSPORT}.
+ */
+public interface HttpTransport {
+
+  /**
+   * Sends the request, blocking until the full response has been received.
+   *
+   * @param request The request.
+   * @return The response.
+   */
+  ApiResponse send(ApiRequest request);
+
+  /**
+   * Whether {@link #send(ApiRequest)} may be called from many threads at once.
+   *
+   * @return True when the transport is thread safe.
+   */
+  default boolean isThreadSafe() {
+    return true;
+  }
+
+  /**
+   * Gauges describing the current state of the transport, for logging.
+   *
+   * @return The statistics, or null if the transport has none.
+   */
+  default String statistics() {
+    return null;
+  }
+
+  /**
+   * Releases any resources held by the transport. Called once at the end of the suite.
+   */
+  default void close() {
+  }
+
+}
@@ -0,0 +1,162 @@
+package transports;
+
+import enums.Configuration;
+import enums.HttpVerb;
+import errors.ConfigurationError;
+import exceptions.HttpTransportException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import managers.ConfigurationManager;
+import org.apache.hc.client5.http.ssl.TrustAllStrategy;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.ssl.SSLContexts;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+import pojos.RequestTimings;
+import utils.Compression;
+import utils.Compression.CountingInputStream;
+import utils.RequestTimer;
+import utils.SpillingOutputStream;
+
+/**
+ * Sends requests through a shared JDK {@link HttpClient} which runs its work on virtual threads,
+ * so concurrent requests do not each hold a platform thread. Response bodies are decoded and
+ * streamed into a {@link SpillingOutputStream}. The client exposes no connection events, so
+ * connection setup is counted as waiting for the response headers.
+ */
+public class JavaNetTransport implements HttpTransport {
+
+  private final ExecutorService executor;
+  private final HttpClient client;
+
+  /**
+   * Creates the HTTP client.
+   */
+  public JavaNetTransport() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      client = HttpClient.newBuilder()
+          .executor(executor)
+          .version(HttpClient.Version.HTTP_2)
+          .followRedirects(HttpClient.Redirect.NORMAL)
+          .connectTimeout(Duration.ofMillis(
+              ConfigurationManager.get().environment()
+                  .asRequiredInteger(Configuration.API_TIMEOUT)))
+          .sslContext(SSLContexts.custom()
+              .loadTrustMaterial(TrustAllStrategy.INSTANCE)
+              .build())
+          .build();
+    } catch (GeneralSecurityException e) {
+      throw new ConfigurationError(e);
+    }
+  }
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    var builder = HttpRequest.newBuilder(URI.create(request.getFullUrl()))
+        .timeout(Duration.ofMillis(request.getTimeout()));
+    request.getDefaultHeaders().forEach(builder::setHeader);
+    request.getHeaders().forEach(builder::setHeader);
+
+    var timer = new RequestTimer();
+    try {
+      builder.method(request.getHttpVerb().toString(), bodyPublisher(request, builder));
+      var response = client.send(builder.build(), BodyHandlers.ofInputStream());
+      timer.firstByte();
+      var body = SpillingOutputStream.forResponseBody();
+      var encoded = new CountingInputStream(response.body());
+      // The encoded stream is closed even when no decoder can be opened, releasing the connection
+      try (encoded; var input = Compression.decode(
+          encoded,
+          response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null)); body) {
+        input.transferTo(body);
+      } catch (IOException e) {
+        deleteSpilled(body);
+        throw e;
+      }
+      timer.completed();
+      return toApiResponse(response, body, encoded.getCount(), timer.timings());
+    } catch (IOException e) {
+      throw new HttpTransportException(
+          String.format("%s %s failed", request.getHttpVerb(), request.getFullUrl()),
+          e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HttpTransportException("Interrupted waiting for response", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    client.close();
+    executor.close();
+  }
+
+  /**
+   * File bodies are streamed from disk, with multipart framing sent either side of the file.
+   */
+  private BodyPublisher bodyPublisher(ApiRequest request, HttpRequest.Builder builder)
+      throws FileNotFoundException {
+    if (request.getHttpVerb() == HttpVerb.GET) {
+      return BodyPublishers.noBody();
+    }
+    var fileBody = request.getFileBody();
+    if (fileBody != null) {
+      builder.setHeader(HttpHeaders.CONTENT_TYPE, fileBody.getRequestContentType());
+      if (!fileBody.isMultipart()) {
+        return BodyPublishers.ofFile(fileBody.getPath());
+      }
+      return BodyPublishers.concat(
+          BodyPublishers.ofByteArray(fileBody.getMultipartPreamble()),
+          BodyPublishers.ofFile(fileBody.getPath()),
+          BodyPublishers.ofByteArray(fileBody.getMultipartEpilogue()));
+    }
+    return request.getBody() != null
+        ? BodyPublishers.ofByteArray(request.getBody())
+        : BodyPublishers.noBody();
+  }
+
+  private ApiResponse toApiResponse(
+      HttpResponse<?> response,
+      SpillingOutputStream body,
+      long encodedSize,
+      RequestTimings timings) {
+    var headers = new HashMap<String, String>();
+    response.headers().map().forEach((name, values) -> headers.merge(
+        name.toLowerCase(Locale.ROOT),
+        String.join(", ", values),
+        (existing, value) -> existing + ", " + value));
+    return new ApiResponse(
+        response.statusCode(),
+        headers,
+        body,
+        encodedSize,
+        response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1",
+        timings);
+  }
+
+  private static void deleteSpilled(SpillingOutputStream body) {
+    if (body.isSpilled()) {
+      try {
+        Files.deleteIfExists(body.getPath());
+      } catch (IOException e) {
+        // Left for mvn clean
+      }
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+package transports;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.StreamChannel;
+import org.apache.hc.core5.http.nio.entity.AbstractBinAsyncEntityProducer;
+import pojos.FileBody;
+
+/**
+ * Streams a multipart body holding a single file, reading the file in fixed size chunks between
+ * the multipart framing so that the file is never held in memory.
+ */
+class MultipartFileEntityProducer extends AbstractBinAsyncEntityProducer {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private final FileBody fileBody;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private ByteBuffer preamble;
+  private ByteBuffer epilogue;
+  private FileChannel file;
+  private boolean fileSent;
+
+  MultipartFileEntityProducer(FileBody fileBody) {
+    super(BUFFER_SIZE, ContentType.parse(fileBody.getRequestContentType()));
+    this.fileBody = fileBody;
+  }
+
+  @Override
+  public long getContentLength() {
+    return fileBody.getContentLength();
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  protected int availableData() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  protected void produceData(StreamChannel<ByteBuffer> channel) throws IOException {
+    if (file == null) {
+      preamble = ByteBuffer.wrap(fileBody.getMultipartPreamble());
+      epilogue = ByteBuffer.wrap(fileBody.getMultipartEpilogue());
+      file = FileChannel.open(fileBody.getPath(), StandardOpenOption.READ);
+      buffer.clear().limit(0);
+      fileSent = false;
+    }
+
+    if (preamble.hasRemaining()) {
+      channel.write(preamble);
+      if (preamble.hasRemaining()) {
+        return;
+      }
+    }
+    while (!fileSent) {
+      if (!buffer.hasRemaining()) {
+        buffer.clear();
+        if (file.read(buffer) < 0) {
+          fileSent = true;
+          break;
+        }
+        buffer.flip();
+      }
+      channel.write(buffer);
+      if (buffer.hasRemaining()) {
+        return;
+      }
+    }
+    channel.write(epilogue);
+    if (!epilogue.hasRemaining()) {
+      channel.endStream();
+      closeFile();
+    }
+  }
+
+  @Override
+  public void failed(Exception cause) {
+    releaseResources();
+  }
+
+  @Override
+  public void releaseResources() {
+    closeFile();
+    super.releaseResources();
+  }
+
+  private void closeFile() {
+    if (file != null) {
+      try {
+        file.close();
+      } catch (IOException e) {
+        // Nothing further to release
+      }
+      file = null;
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+package transports;
+
+import com.microsoft.playwright.options.RequestOptions;
+import enums.HttpVerb;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import managers.PlaywrightManager;
+import org.apache.hc.core5.http.HttpHeaders;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+import utils.RequestTimer;
+import utils.SpillingOutputStream;
+
+/**
+ * Sends requests through a pooled Playwright API Request context. Playwright only exposes the
+ * response body as a whole, already decoded, so large bodies are spilled to disk once received.
+ * Playwright reports no connection timings, so connection setup is counted as waiting and receive
+ * is the time to transfer the body from the driver. Playwright only accepts request bodies in
+ * memory, so file bodies are read in full before sending.
+ */
+public class PlaywrightTransport implements HttpTransport {
+
+  public static final String HTTP_1_1 = "HTTP/1.1";
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    var context = PlaywrightManager.get().requestContexts().acquire(
+        request.getBaseUrl(),
+        request.getTimeout(),
+        request.getDefaultHeaders());
+
+    var options = buildRequestOptions(request.getHeaders());
+    var data = request.getBody();
+    var fileBody = request.getFileBody();
+    if (fileBody != null && request.getHttpVerb() != HttpVerb.GET) {
+      options.setHeader(HttpHeaders.CONTENT_TYPE, fileBody.getRequestContentType());
+      data = fileBody.toByteArray();
+    }
+    var timer = new RequestTimer();
+    var httpResponse = switch (request.getHttpVerb()) {
+      case HttpVerb.GET -> context.get(request.getUrl(), options);
+      case HttpVerb.POST -> context.post(request.getUrl(), options.setData(data));
+      case HttpVerb.PUT -> context.put(request.getUrl(), options.setData(data));
+    };
+    timer.firstByte();
+
+    var body = SpillingOutputStream.forResponseBody();
+    try (body) {
+      body.write(httpResponse.body());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      httpResponse.dispose();
+    }
+    timer.completed();
+    var headers = httpResponse.headers();
+    return new ApiResponse(
+        httpResponse.status(),
+        headers,
+        body,
+        encodedSize(headers, body.size()),
+        HTTP_1_1,
+        timer.timings());
+  }
+
+  /**
+   * Playwright decodes compressed responses itself, so the size as received can only be taken
+   * from the {@code Content-Length} header.
+   */
+  private long encodedSize(Map<String, String> headers, long size) {
+    var contentLength = headers.get(HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT));
+    var contentEncoding = headers.get(HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ROOT));
+    if (contentEncoding != null && contentLength != null) {
+      try {
+        return Long.parseLong(contentLength.trim());
+      } catch (NumberFormatException e) {
+        return size;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Playwright instances are leased per scenario thread.
+   *
+   * @return False.
+   */
+  @Override
+  public boolean isThreadSafe() {
+    return false;
+  }
+
+  /**
+   * Per request headers are sent via the request options so the pooled context can be reused.
+   *
+   * @param additionalHeaders Headers for this request only.
+   * @return The request options.
+   */
+  private RequestOptions buildRequestOptions(Map<String, String> additionalHeaders) {
+    var options = RequestOptions.create();
+    additionalHeaders.forEach(options::setHeader);
+    return options;
+  }
+
+}
@@ -0,0 +1,60 @@
+package transports;
+
+import loggers.FileLogger;
+import managers.RateLimitManager;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+
+/**
+ * Throttles requests with the {@link RateLimitManager} before they reach the API. Sits below the
+ * HTTP cache, so responses served from the cache neither wait for nor use up the limits.
+ */
+public class RateLimitedTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+  private final RateLimitManager rateLimiter;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param delegate    The transport which sends the throttled requests.
+   * @param rateLimiter The limits shared by every scenario thread.
+   */
+  public RateLimitedTransport(HttpTransport delegate, RateLimitManager rateLimiter) {
+    this.delegate = delegate;
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    rateLimiter.acquire();
+    ApiResponse response;
+    try {
+      response = delegate.send(request);
+    } finally {
+      rateLimiter.release();
+    }
+    var pause = rateLimiter.onResponse(response);
+    if (pause > 0) {
+      FileLogger.instance().get().info(String.format(
+          "Status %d received, pausing requests for %d ms", response.status(), pause));
+    }
+    return response;
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return delegate.isThreadSafe();
+  }
+
+  @Override
+  public String statistics() {
+    return delegate.statistics();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+}
@@ -0,0 +1,47 @@
+package transports;
+
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+
+/**
+ * Records every response received through another transport into a {@link ReplayCorpus}.
+ */
+public class RecordingTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+  private final ReplayCorpus corpus;
+
+  /**
+   * Instantiate from properties.
+   *
+   * @param delegate The transport which sends the requests.
+   * @param corpus   The corpus to record into.
+   */
+  public RecordingTransport(HttpTransport delegate, ReplayCorpus corpus) {
+    this.delegate = delegate;
+    this.corpus = corpus;
+  }
+
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    var response = delegate.send(request);
+    corpus.record(request, response);
+    return response;
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return delegate.isThreadSafe();
+  }
+
+  @Override
+  public String statistics() {
+    return delegate.statistics();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+}
@@ -0,0 +1,264 @@
+package transports;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.smartbear.har.builder.HarEntryBuilder;
+import com.smartbear.har.builder.HarRequestBuilder;
+import com.smartbear.har.builder.HarResponseBuilder;
+import com.smartbear.har.creator.DefaultHarStreamWriter;
+import com.smartbear.har.model.HarContent;
+import com.smartbear.har.model.HarEntry;
+import com.smartbear.har.model.HarHeader;
+import enums.HttpVerb;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+import utils.RequestTimer;
+
+/**
+ * Recorded responses stored as a HAR file, keyed by method, URL, query string and a SHA-256 of the
+ * request body.
+ *
+ * <p>Query parameters are sorted before keying, so their order does not matter. File bodies are
+ * keyed by the hash of the file rather than the multipart body, whose boundary changes on every
+ * request. When the same request is recorded more than once, the last response wins, so a polled
+ * request replays the response which ended the polling. Entries are written in key order, so that
+ * merged recordings produce stable diffs.
+ */
+public class ReplayCorpus {
+
+  private static final String BASE64 = "base64";
+  private static final String SHA256 = "sha256 ";
+  private final Path path;
+  private final Map<String, HarEntry> entries = new TreeMap<>();
+
+  private ReplayCorpus(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Loads the corpus, which is empty when the file does not exist yet.
+   *
+   * @param path The HAR file.
+   * @return The corpus.
+   */
+  public static ReplayCorpus load(Path path) {
+    var corpus = new ReplayCorpus(path);
+    if (Files.exists(path)) {
+      try {
+        var root = JsonParser.parseString(Files.readString(path)).getAsJsonObject();
+        for (var element : root.getAsJsonObject("log").getAsJsonArray("entries")) {
+          var entry = fromJson(element.getAsJsonObject());
+          corpus.entries.put(key(entry), entry);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return corpus;
+  }
+
+  /**
+   * The number of recorded responses.
+   *
+   * @return The entry count.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Finds the recorded response to the request.
+   *
+   * @param request The request.
+   * @return A new response snapshot, or null if the request was not recorded.
+   */
+  public ApiResponse find(ApiRequest request) {
+    HarEntry entry;
+    synchronized (this) {
+      entry = entries.get(
+          key(request.getHttpVerb().toString(), request.getFullUrl(), bodyHash(request)));
+    }
+    if (entry == null) {
+      return null;
+    }
+    var response = entry.getResponse();
+    var headers = new HashMap<String, String>();
+    response.getHeaders().forEach(header -> headers.put(header.getName(), header.getValue()));
+    var content = response.getContent();
+    var body = content.getText() == null
+        ? new byte[0]
+        : BASE64.equals(content.getComment())
+            ? Base64.getDecoder().decode(content.getText())
+            : content.getText().getBytes(StandardCharsets.UTF_8);
+    return new ApiResponse(
+        response.getStatus(),
+        headers,
+        body,
+        response.getHttpVersion(),
+        new RequestTimer().timings());
+  }
+
+  /**
+   * Records the response to the request, replacing any earlier recording of the same request.
+   * Headers describing the encoding on the wire are dropped, as the recorded body is decoded.
+   *
+   * @param request  The request.
+   * @param response The response.
+   */
+  public void record(ApiRequest request, ApiResponse response) {
+    var body = response.body();
+    var text = decodeUtf8(body);
+    var headers = response.headers().entrySet().stream()
+        .filter(header -> !header.getKey().equals("content-encoding")
+            && !header.getKey().equals("content-length")
+            && !header.getKey().equals("transfer-encoding"))
+        .sorted(Map.Entry.comparingByKey())
+        .map(header -> new HarHeader(header.getKey(), header.getValue(), null))
+        .toList();
+    var entry = new HarEntryBuilder()
+        .withRequest(new HarRequestBuilder()
+            .withMethod(request.getHttpVerb().toString())
+            .withUrl(request.getFullUrl())
+            .withComment(SHA256 + bodyHash(request))
+            .build())
+        .withResponse(new HarResponseBuilder()
+            .withStatus(response.status())
+            .withHttpVersion(response.httpVersion())
+            .withHeaders(headers)
+            .withContent(new HarContent(
+                (long) body.length,
+                0L,
+                response.headers().get("content-type"),
+                text != null ? text : Base64.getEncoder().encodeToString(body),
+                text != null ? null : BASE64))
+            .build())
+        .build();
+    synchronized (this) {
+      entries.put(key(entry), entry);
+    }
+  }
+
+  /**
+   * Writes the corpus back to its file, including entries loaded from it which were not recorded
+   * again, so that recordings from several runs merge into one corpus.
+   *
+   * @throws IOException If the file cannot be written.
+   */
+  public synchronized void save() throws IOException {
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    var writer = new DefaultHarStreamWriter.Builder()
+        .withOutputFile(path.toFile())
+        .withUsePrettyPrint(true)
+        .build();
+    for (var entry : entries.values()) {
+      writer.addEntry(entry);
+    }
+    writer.closeHar();
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  private static String key(HarEntry entry) {
+    var request = entry.getRequest();
+    return key(
+        request.getMethod(),
+        request.getUrl(),
+        request.getComment().substring(SHA256.length()));
+  }
+
+  private static String key(String method, String url, String bodyHash) {
+    var queryStart = url.indexOf('?');
+    if (queryStart >= 0) {
+      var parameters = url.substring(queryStart + 1).split("&");
+      Arrays.sort(parameters);
+      url = url.substring(0, queryStart + 1) + String.join("&", parameters);
+    }
+    return String.format("%s %s %s", method, url, bodyHash);
+  }
+
+  private static String bodyHash(ApiRequest request) {
+    if (request.getHttpVerb() == HttpVerb.GET) {
+      return sha256(new byte[0]);
+    }
+    if (request.getFileBody() != null) {
+      return request.getFileBody().sha256();
+    }
+    return sha256(request.getBody() == null ? new byte[0] : request.getBody());
+  }
+
+  private static String sha256(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Bodies which are not valid UTF-8 are stored base64 encoded, flagged in the content comment.
+   */
+  private static String decodeUtf8(byte[] bytes) {
+    try {
+      return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+    } catch (CharacterCodingException e) {
+      return null;
+    }
+  }
+
+  private static HarEntry fromJson(JsonObject json) {
+    var request = json.getAsJsonObject("request");
+    var response = json.getAsJsonObject("response");
+    var content = response.getAsJsonObject("content");
+    var headers = new ArrayList<HarHeader>();
+    for (var header : response.getAsJsonArray("headers")) {
+      headers.add(new HarHeader(
+          header.getAsJsonObject().get("name").getAsString(),
+          header.getAsJsonObject().get("value").getAsString(),
+          null));
+    }
+    return new HarEntryBuilder()
+        .withRequest(new HarRequestBuilder()
+            .withMethod(request.get("method").getAsString())
+            .withUrl(request.get("url").getAsString())
+            .withComment(request.get("comment").getAsString())
+            .build())
+        .withResponse(new HarResponseBuilder()
+            .withStatus(response.get("status").getAsInt())
+            .withHttpVersion(asString(response.get("httpVersion")))
+            .withHeaders(headers)
+            .withContent(new HarContent(
+                content.get("size").getAsLong(),
+                0L,
+                asString(content.get("mimeType")),
+                asString(content.get("text")),
+                asString(content.get("comment"))))
+            .build())
+        .build();
+  }
+
+  private static String asString(JsonElement element) {
+    return element == null || element.isJsonNull() ? null : element.getAsString();
+  }
+
+}
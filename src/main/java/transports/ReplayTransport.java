@@ -0,0 +1,54 @@
+package transports;
+
+import exceptions.HttpTransportException;
+import java.util.concurrent.atomic.AtomicLong;
+import pojos.ApiRequest;
+import pojos.ApiResponse;
+
+/**
+ * Serves responses from a {@link ReplayCorpus} without any network I/O, for deterministic reruns
+ * and for measuring the overhead of the framework on its own.
+ */
+public class ReplayTransport implements HttpTransport {
+
+  private final ReplayCorpus corpus;
+  private final AtomicLong replayed = new AtomicLong();
+  private final AtomicLong missing = new AtomicLong();
+
+  public ReplayTransport(ReplayCorpus corpus) {
+    this.corpus = corpus;
+  }
+
+  /**
+   * Replays the recorded response.
+   *
+   * @param request The request.
+   * @return The recorded response.
+   * @throws HttpTransportException If the request was not recorded.
+   */
+  @Override
+  public ApiResponse send(ApiRequest request) {
+    var response = corpus.find(request);
+    if (response == null) {
+      missing.incrementAndGet();
+      throw new HttpTransportException(String.format(
+          "No recorded response for %s %s with this body in %s, record it with replayMode=record",
+          request.getHttpVerb(),
+          request.getFullUrl(),
+          corpus.getPath()));
+    }
+    replayed.incrementAndGet();
+    return response;
+  }
+
+  @Override
+  public String statistics() {
+    return String.format(
+        "Replay: %d response(s) replayed, %d missing, %d recorded in %s",
+        replayed.get(),
+        missing.get(),
+        corpus.size(),
+        corpus.getPath());
+  }
+
+}
@@ -0,0 +1,151 @@
+package transports;
+
+import java.net.SocketAddress;
+import java.util.concurrent.Future;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import utils.RequestTimer;
+
+/**
+ * Connection manager which marks the DNS, connect and TLS phases of new connections on the
+ * {@link RequestTimer} held in the request context.
+ *
+ * <p>Host names are resolved before the connection initiator is called, so the first call to the
+ * initiator ends the DNS phase, and its callback ends the TCP connect. The TLS handshake runs
+ * between that and the connect callback.
+ */
+class TimedConnectionManager implements AsyncClientConnectionManager {
+
+  static final String TIMER_ATTRIBUTE = "transports.request-timer";
+  private final AsyncClientConnectionManager delegate;
+
+  TimedConnectionManager(AsyncClientConnectionManager delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Future<AsyncConnectionEndpoint> lease(
+      String id,
+      HttpRoute route,
+      Object state,
+      Timeout requestTimeout,
+      FutureCallback<AsyncConnectionEndpoint> callback) {
+    return delegate.lease(id, route, state, requestTimeout, callback);
+  }
+
+  @Override
+  public void release(AsyncConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+    delegate.release(endpoint, newState, validDuration);
+  }
+
+  @Override
+  public Future<AsyncConnectionEndpoint> connect(
+      AsyncConnectionEndpoint endpoint,
+      ConnectionInitiator connectionInitiator,
+      Timeout connectTimeout,
+      Object attachment,
+      HttpContext context,
+      FutureCallback<AsyncConnectionEndpoint> callback) {
+    var timer = context != null && context.getAttribute(TIMER_ATTRIBUTE) instanceof RequestTimer t
+        ? t
+        : null;
+    if (timer == null) {
+      return delegate.connect(
+          endpoint, connectionInitiator, connectTimeout, attachment, context, callback);
+    }
+
+    timer.connectStarted();
+    return delegate.connect(
+        endpoint,
+        timedInitiator(connectionInitiator, timer),
+        connectTimeout,
+        attachment,
+        context,
+        new MarkingCallback<>(callback, timer::connected));
+  }
+
+  @Override
+  public void upgrade(AsyncConnectionEndpoint endpoint, Object attachment, HttpContext context) {
+    delegate.upgrade(endpoint, attachment, context);
+  }
+
+  @Override
+  public void upgrade(
+      AsyncConnectionEndpoint endpoint,
+      Object attachment,
+      HttpContext context,
+      FutureCallback<AsyncConnectionEndpoint> callback) {
+    delegate.upgrade(endpoint, attachment, context, callback);
+  }
+
+  @Override
+  public void close(CloseMode closeMode) {
+    delegate.close(closeMode);
+  }
+
+  @Override
+  public void close() {
+    delegate.close(CloseMode.GRACEFUL);
+  }
+
+  private ConnectionInitiator timedInitiator(ConnectionInitiator initiator, RequestTimer timer) {
+    return (NamedEndpoint remoteEndpoint,
+        SocketAddress remoteAddress,
+        SocketAddress localAddress,
+        Timeout timeout,
+        Object attachment,
+        FutureCallback<IOSession> callback) -> {
+      timer.dnsResolved();
+      var secure = remoteEndpoint instanceof HttpHost host
+          && URIScheme.HTTPS.same(host.getSchemeName());
+      return initiator.connect(
+          remoteEndpoint,
+          remoteAddress,
+          localAddress,
+          timeout,
+          attachment,
+          new MarkingCallback<>(callback, () -> timer.tcpConnected(secure)));
+    };
+  }
+
+  /**
+   * Marks the timer on completion before passing the result on.
+   */
+  private record MarkingCallback<T>(FutureCallback<T> callback, Runnable mark)
+      implements FutureCallback<T> {
+
+    @Override
+    public void completed(T result) {
+      mark.run();
+      if (callback != null) {
+        callback.completed(result);
+      }
+    }
+
+    @Override
+    public void failed(Exception ex) {
+      if (callback != null) {
+        callback.failed(ex);
+      }
+    }
+
+    @Override
+    public void cancelled() {
+      if (callback != null) {
+        callback.cancelled();
+      }
+    }
+  }
+
+}
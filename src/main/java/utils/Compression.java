@@ -0,0 +1,135 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Helper methods for HTTP content encoding.
+ */
+public final class Compression {
+
+  public static final String GZIP = "gzip";
+  private static final String BROTLI_INPUT_STREAM = "org.brotli.dec.BrotliInputStream";
+  private static final boolean BROTLI_AVAILABLE = isBrotliAvailable();
+
+  private Compression() {
+    //Private constructor to hide implicit public one
+  }
+
+  /**
+   * The encodings which {@link #decode(InputStream, String)} supports. Brotli is only included
+   * when a Brotli decoder is on the classpath.
+   *
+   * @return The {@code Accept-Encoding} header value.
+   */
+  public static String acceptEncoding() {
+    return BROTLI_AVAILABLE ? "gzip, deflate, br" : "gzip, deflate";
+  }
+
+  /**
+   * Wraps the stream so that reading it decodes the content encodings, which are undone in the
+   * reverse of the order they were applied.
+   *
+   * @param input           The encoded stream.
+   * @param contentEncoding The {@code Content-Encoding} header value, may be null.
+   * @return The decoded stream.
+   * @throws IOException If the stream cannot be decoded.
+   */
+  public static InputStream decode(InputStream input, String contentEncoding) throws IOException {
+    if (contentEncoding == null) {
+      return input;
+    }
+    var encodings = contentEncoding.split(",");
+    for (var i = encodings.length - 1; i >= 0; i--) {
+      var encoding = encodings[i].trim().toLowerCase(Locale.ROOT);
+      input = switch (encoding) {
+        case GZIP, "x-gzip" -> new GZIPInputStream(input);
+        case "deflate" -> new InflaterInputStream(input);
+        case "br" -> brotli(input);
+        case "identity", "" -> input;
+        default -> throw new IOException("Unsupported Content-Encoding " + encoding);
+      };
+    }
+    return input;
+  }
+
+  /**
+   * Gzip compresses the bytes.
+   *
+   * @param bytes The uncompressed bytes.
+   * @return The compressed bytes.
+   */
+  public static byte[] gzip(byte[] bytes) {
+    var output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (var gzip = new GZIPOutputStream(output)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return output.toByteArray();
+  }
+
+  private static InputStream brotli(InputStream input) throws IOException {
+    if (!BROTLI_AVAILABLE) {
+      throw new IOException("Content-Encoding br requires org.brotli:dec on the classpath");
+    }
+    try {
+      return (InputStream) Class.forName(BROTLI_INPUT_STREAM)
+          .getConstructor(InputStream.class)
+          .newInstance(input);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Failed to create Brotli decoder", e);
+    }
+  }
+
+  private static boolean isBrotliAvailable() {
+    try {
+      Class.forName(BROTLI_INPUT_STREAM);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Counts the bytes read through it, used to measure the encoded size of a response.
+   */
+  public static class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    public CountingInputStream(InputStream input) {
+      super(input);
+    }
+
+    @Override
+    public int read() throws IOException {
+      var b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      var read = super.read(bytes, offset, length);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    public long getCount() {
+      return count;
+    }
+  }
+
+}
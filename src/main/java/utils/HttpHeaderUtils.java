@@ -0,0 +1,43 @@
+package utils;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Helper methods for reading HTTP headers.
+ */
+public final class HttpHeaderUtils {
+
+  private static final String RETRY_AFTER = "retry-after";
+
+  private HttpHeaderUtils() {
+    //Private constructor to hide implicit public one
+  }
+
+  /**
+   * Reads the {@code Retry-After} header, in either delay-seconds or HTTP-date format.
+   *
+   * @param headers Response headers keyed by lower case header name.
+   * @return The delay in milliseconds, or -1 when the header is absent or invalid.
+   */
+  public static long retryAfterMillis(Map<String, String> headers) {
+    var value = headers.get(RETRY_AFTER);
+    if (StringUtils.isNullEmptyOrWhitespace(value)) {
+      return -1;
+    }
+    value = value.trim();
+    try {
+      return Math.max(0, Long.parseLong(value) * 1000);
+    } catch (NumberFormatException e) {
+      try {
+        var date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+        return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+      } catch (DateTimeParseException ex) {
+        return -1;
+      }
+    }
+  }
+}
@@ -1,24 +1,66 @@
 package utils;
 
-import static com.jayway.jsonpath.JsonPath.using;
-
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.ParseContext;
 import com.jayway.jsonpath.PathNotFoundException;
-import java.util.ArrayList;
+import com.jayway.jsonpath.TypeRef;
+import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+import com.jayway.jsonpath.spi.mapper.GsonMappingProvider;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import loggers.FileLogger;
 
 /**
  * Utility methods for the JsonPath library.
+ *
+ * <p>Documents are parsed with one shared configuration. JSON Paths are compiled once and kept in
+ * a least recently used cache, as the same few paths from the feature files are read and written
+ * many times per run.
+ *
+ * <p>Documents are Gson trees, built with the same Gson settings as {@link JsonSerializer}, so
+ * that a body parsed once stays a {@link JsonElement} through transformations, sending and
+ * assertions. Reads return objects and arrays as {@link JsonObject} and
+ * {@link com.google.gson.JsonArray}, and values as Java strings, numbers and booleans.
+ *
+ * <p>Reads, existence checks and writes all work on the live document, so their cost depends on
+ * the depth of the path rather than the size of the document.
  */
 public class JsonPathUtils {
 
   private static final String ROOT = "$";
+  private static final int MAX_CACHED_PATHS = 512;
+  private static final Configuration CONFIGURATION = Configuration
+      .builder()
+      .jsonProvider(new GsonJsonProvider(JsonSerializer.gson()))
+      .mappingProvider(new GsonMappingProvider(JsonSerializer.gson()))
+      .options(Option.SUPPRESS_EXCEPTIONS)
+      .options(Option.DEFAULT_PATH_LEAF_TO_NULL)
+      .build();
+  private static final JsonProvider PROVIDER = CONFIGURATION.jsonProvider();
+  private static final ParseContext PARSER = JsonPath.using(getConfiguration());
+  private static final TypeRef<List<Map<String, Object>>> LIST_OF_OBJECTS = new TypeRef<>() { };
+  private static final TypeRef<List<HashMap<String, String>>> LIST_OF_STRING_MAPS =
+      new TypeRef<>() { };
+  private static final Map<String, JsonPath> PATHS =
+      new LinkedHashMap<>(MAX_CACHED_PATHS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JsonPath> eldest) {
+          return size() > MAX_CACHED_PATHS;
+        }
+      };
+  private static final AtomicLong HITS = new AtomicLong();
+  private static final AtomicLong MISSES = new AtomicLong();
 
   private JsonPathUtils() {
   }
@@ -30,18 +72,56 @@ public class JsonPathUtils {
    * @return The JSON document.
    */
   public static DocumentContext parse(String json) {
-    return using(getConfiguration()).parse(json);
+    return PARSER.parse(json);
+  }
+
+  /**
+   * Wraps a Gson tree without copying it, so that changes made through the document change the
+   * tree.
+   *
+   * @param json The JSON tree.
+   * @return The JSON document.
+   */
+  public static DocumentContext parse(JsonElement json) {
+    return PARSER.parse((Object) json);
+  }
+
+  /**
+   * Parses the Json stream using configuration {@link #getConfiguration()}.
+   *
+   * @param json JSON stream, not closed by this method.
+   * @return The JSON document.
+   */
+  public static DocumentContext parse(InputStream json) {
+    return PARSER.parse(json);
   }
 
   /**
-   * Reads the field specified by jsonPath.
+   * Reads the field specified by jsonPath. Strings, numbers and booleans are returned as Java
+   * values, objects and arrays as Gson trees.
    *
    * @param document Json
    * @param jsonPath The JSON Path to read
    * @return The value of the property or null if not exists.
    */
   public static Object read(DocumentContext document, String jsonPath) {
-    return parse(document.jsonString()).read(jsonPath);
+    return unwrap(document.read(compile(jsonPath)));
+  }
+
+  /**
+   * Converts a Gson primitive to the Java value {@link #read(DocumentContext, String)} returns,
+   * and a Gson null to null. Whole numbers are Integers when they fit, as property reads come
+   * back as Longs where array reads give Integers.
+   *
+   * @param value The value read from a document.
+   * @return The Java value, or the value itself when it is an object or array.
+   */
+  static Object unwrap(Object value) {
+    var unwrapped = PROVIDER.unwrap(value);
+    if (unwrapped instanceof Long number && number == number.intValue()) {
+      return number.intValue();
+    }
+    return unwrapped;
   }
 
   /**
@@ -49,12 +129,12 @@ public class JsonPathUtils {
    *
    * @param document The document
    * @param jsonPath The Path
-   * @return a list
+   * @return a list, mapped from the matching objects by Gson
    */
   public static List<HashMap<String, String>> executeFilter(
       DocumentContext document,
       String jsonPath) {
-    return parse(document.jsonString()).read(jsonPath);
+    return document.read(compile(jsonPath), LIST_OF_STRING_MAPS);
   }
 
   /**
@@ -105,11 +185,12 @@ public class JsonPathUtils {
       DocumentContext document,
       String jsonPath,
       JsonObject jsonObject) {
-    document.set(jsonPath, jsonObject);
+    document.set(compile(jsonPath), jsonObject);
   }
 
   /**
-   * Appends value to an existing array in Environment Data.
+   * Appends value to an existing array in Environment Data, or replaces the property with a new
+   * array holding the value. The value is converted to a Gson tree as it is added.
    *
    * @param document JSON.
    * @param jsonPath The JSON Path to property.
@@ -119,16 +200,11 @@ public class JsonPathUtils {
       DocumentContext document,
       String jsonPath,
       Map<String, Object> value) {
-    if (Boolean.TRUE.equals(propertyExists(document, jsonPath))) {
-      List<Map<String, Object>> values = document.read(jsonPath);
-
-      var mutableList = new ArrayList<>(values);
-      mutableList.add(value);
-      document.set(jsonPath, mutableList);
+    var path = compile(jsonPath);
+    if (PROVIDER.isArray(document.read(path))) {
+      document.add(path, value);
     } else {
-      var mutableList = new ArrayList<>();
-      mutableList.add(value);
-      document.set(jsonPath, mutableList);
+      document.set(path, List.of(value));
     }
   }
 
@@ -145,29 +221,36 @@ public class JsonPathUtils {
           String.format("JSON Path %s not found in document", jsonPath));
     }
 
-    document.delete(jsonPath);
+    document.delete(compile(jsonPath));
   }
 
   /**
    * Returns JSON Array type value of given JSON Path.
    *
    * @param jsonPath JSON Path to lookup
-   * @return String or throws when array is not found.
+   * @return The array mapped by Gson, null if not found, or throws when it is not an array of
+   *     objects.
    */
-  @SuppressWarnings("unchecked")
   public static List<Map<String, Object>> getArray(DocumentContext document, String jsonPath) {
-    var obj = read(document, jsonPath);
-    if (obj == null
-        || (obj instanceof List<?>
-        && (((List<?>) obj).isEmpty() || ((List<?>) obj).getFirst() instanceof Map<?, ?>))) {
-      return (List<Map<String, Object>>) obj;
+    var path = compile(jsonPath);
+    var obj = document.read(path);
+    if (obj == null) {
+      return null;
+    }
+    if (PROVIDER.isArray(obj)
+        && (PROVIDER.length(obj) == 0 || PROVIDER.isMap(PROVIDER.getArrayIndex(obj, 0)))) {
+      return document.read(path, LIST_OF_OBJECTS);
     } else {
       throw new IllegalArgumentException("Value must be an JSON Array");
     }
   }
 
   /**
-   * Checks each node in the JSON Path, creating when it does not already exist.
+   * Walks the JSON Path once from the root of the live document, creating each missing property
+   * on the way, then puts the value into its parent. Property names and array indexes are
+   * followed through the JSON provider, as JsonPath reads return copies of Gson objects and
+   * arrays. For any other segment, such as a wildcard or filter, the value is put through
+   * JsonPath, which only succeeds when its parent already exists.
    *
    * @param document JSON.
    * @param jsonPath The JSON Path of the property to add.
@@ -178,74 +261,153 @@ public class JsonPathUtils {
       String jsonPath,
       Object value) {
     var jsonPathNodes = jsonPath.split("\\.");
-    for (var i = 2; i <= jsonPathNodes.length; i++) {
-      if (i == jsonPathNodes.length) {
-        var key = jsonPathNodes[jsonPathNodes.length - 1];
-        put(
-            document,
-            String.join(
-                ".",
-                Arrays.copyOf(jsonPathNodes, jsonPathNodes.length - 1)),
-            key,
-            value);
+    var last = jsonPathNodes.length - 1;
+    Object parent = document.json();
+    for (var i = ROOT.equals(jsonPathNodes[0]) ? 1 : 0; i < last && parent != null; i++) {
+      parent = child(parent, jsonPathNodes[i]);
+    }
+
+    var key = jsonPathNodes[last];
+    if (PROVIDER.isMap(parent) && isPropertyName(key)) {
+      PROVIDER.setProperty(parent, key, value);
+    } else {
+      document.put(
+          compile(String.join(".", Arrays.copyOf(jsonPathNodes, last))),
+          key,
+          value);
+    }
+  }
+
+  /**
+   * Follows a segment of the form {@code name}, {@code name[0]} or {@code [0]}, creating the
+   * property when it is missing and no index follows it.
+   *
+   * @param parent The live node holding the segment.
+   * @param node   The JSON Path segment.
+   * @return The live child node, or null if it cannot be followed.
+   */
+  private static Object child(Object parent, String node) {
+    var bracket = node.indexOf('[');
+    var name = bracket < 0 ? node : node.substring(0, bracket);
+    if (!name.isEmpty()) {
+      if (!PROVIDER.isMap(parent) || !isPropertyName(name)) {
+        return null;
+      }
+      var child = PROVIDER.getMapValue(parent, name);
+      if (child == null || child == JsonProvider.UNDEFINED) {
+        if (bracket >= 0) {
+          return null;
+        }
+        PROVIDER.setProperty(parent, name, PROVIDER.createMap());
+        // Gson converts the value it is given, so continue from the node actually stored
+        child = PROVIDER.getMapValue(parent, name);
+      }
+      parent = child;
+    }
+
+    while (bracket >= 0) {
+      var close = node.indexOf(']', bracket);
+      if (close < 0 || !PROVIDER.isArray(parent)) {
+        return null;
+      }
+      int index;
+      try {
+        index = Integer.parseInt(node, bracket + 1, close, 10);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      if (index < 0 || index >= PROVIDER.length(parent)) {
+        return null;
+      }
+      parent = PROVIDER.getArrayIndex(parent, index);
+      if (close + 1 == node.length()) {
+        bracket = -1;
+      } else if (node.charAt(close + 1) == '[') {
+        bracket = close + 1;
       } else {
-        var nodeValue = new HashMap<>();
-        var parentJsonPathNodes = Arrays.copyOf(jsonPathNodes, i);
-        var parentKey = parentJsonPathNodes[parentJsonPathNodes.length - 1];
-
-        var parentJsonPath = String.join(
-            ".",
-            Arrays.copyOf(parentJsonPathNodes, parentJsonPathNodes.length - 1));
-        putIfNotExists(document, parentJsonPath, parentKey, nodeValue);
+        return null;
       }
     }
+    return parent;
   }
 
-  private static void putIfNotExists(
-      DocumentContext document,
-      String jsonPath,
-      String key,
-      Object value) {
-    if (Boolean.FALSE.equals(propertyExists(document, jsonPath, key))) {
-      put(document, jsonPath, key, value);
+  /**
+   * Whether the JSON Path segment is a property name, rather than an index, wildcard or filter.
+   */
+  private static boolean isPropertyName(String node) {
+    for (var i = 0; i < node.length(); i++) {
+      switch (node.charAt(i)) {
+        case '[', ']', '*', '?', '(', ')', '\'', '"', '@', '$' -> {
+          return false;
+        }
+        default -> {
+          // Part of a property name
+        }
+      }
     }
+    return !node.isEmpty();
   }
 
   private static void set(
       DocumentContext document,
       String jsonPath,
       Object value) {
-    document.set(jsonPath, value);
-  }
-
-  private static void put(
-      DocumentContext document,
-      String parentPath,
-      String key,
-      Object value) {
-    if (!ROOT.equals(parentPath) && document.read(parentPath) instanceof Map) {
-      HashMap<String, Object> existing = new HashMap<>(document.read(parentPath));
-      existing.put(key, value);
-      document.set(parentPath, existing);
-    }
-
-    document.put(parentPath, key, value);
+    document.set(compile(jsonPath), value);
   }
 
   /**
    * Configuration to prevent exceptions and allow for new properties to be added to the root of the
-   * JSON document.
+   * JSON document. The configuration is immutable, so one instance is shared.
    *
    * @return The JSON PAth Configuration.
    */
   private static Configuration getConfiguration() {
-    return com.jayway.jsonpath
-        .Configuration
-        .builder()
-        .options(Option.SUPPRESS_EXCEPTIONS)
-        .options(Option.DEFAULT_PATH_LEAF_TO_NULL)
-        .build();
+    return CONFIGURATION;
+  }
+
+  /**
+   * Describes the compiled JSON Path cache, for the debug log.
+   *
+   * @return The cache statistics.
+   */
+  public static String cacheStatistics() {
+    int size;
+    synchronized (PATHS) {
+      size = PATHS.size();
+    }
+    return String.format(
+        "JSON Path cache: hits %d, misses %d, %d of %d path(s) cached",
+        HITS.get(),
+        MISSES.get(),
+        size,
+        MAX_CACHED_PATHS);
   }
 
+  /**
+   * Compiles the JSON Path, or takes it from the cache. Each miss is logged with the cache
+   * statistics.
+   *
+   * @param jsonPath The JSON Path.
+   * @return The compiled JSON Path.
+   */
+  private static JsonPath compile(String jsonPath) {
+    JsonPath compiled;
+    synchronized (PATHS) {
+      compiled = PATHS.get(jsonPath);
+    }
+    if (compiled != null) {
+      HITS.incrementAndGet();
+      return compiled;
+    }
+
+    compiled = JsonPath.compile(jsonPath);
+    synchronized (PATHS) {
+      PATHS.put(jsonPath, compiled);
+    }
+    MISSES.incrementAndGet();
+    FileLogger.instance().get().fine(
+        String.format("Compiled JSON Path %s. %s", jsonPath, cacheStatistics()));
+    return compiled;
+  }
 
 }
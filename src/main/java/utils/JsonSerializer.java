@@ -2,6 +2,7 @@ package utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
@@ -37,6 +38,16 @@ public class JsonSerializer {
     return builder;
   }
 
+  /**
+   * The Gson instance behind {@link #toJson(Object)}, shared with {@link JsonPathUtils} so that
+   * documents are serialised the same way.
+   *
+   * @return The Gson instance.
+   */
+  static Gson gson() {
+    return gson;
+  }
+
   public static String toJson(Object object) {
     return gson.toJson(object);
   }
@@ -59,6 +70,16 @@ public class JsonSerializer {
         : gson.toJson(JsonParser.parseString(json).getAsJsonObject());
   }
 
+  /**
+   * Writes indented Json text from a tree.
+   *
+   * @param json Json tree
+   * @return Json text
+   */
+  public static String prettyPrint(JsonElement json) {
+    return formattedGson.toJson(json);
+  }
+
   public static <T> T fromObjectToObject(Object o, Class<T> type) {
     return fromJson(toJson(o), type);
   }
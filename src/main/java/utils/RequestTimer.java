@@ -0,0 +1,119 @@
+package utils;
+
+import pojos.RequestTimings;
+
+/**
+ * Records the moments at which a request moves between phases. Transports mark the moments they
+ * can observe, possibly from I/O threads, and time which cannot be attributed to a phase is
+ * counted as waiting for the response.
+ */
+public class RequestTimer {
+
+  private final long start = System.nanoTime();
+  private volatile long connectStarted;
+  private volatile long dnsResolved;
+  private volatile long tcpConnected;
+  private volatile long connected;
+  private volatile boolean secure;
+  private volatile long sendStarted;
+  private volatile long sent;
+  private volatile long firstByte;
+  private volatile long completed;
+
+  public void connectStarted() {
+    connectStarted = System.nanoTime();
+  }
+
+  /**
+   * Marks the host name as resolved, ignoring later marks when several addresses are tried.
+   */
+  public void dnsResolved() {
+    if (dnsResolved == 0) {
+      dnsResolved = System.nanoTime();
+    }
+  }
+
+  /**
+   * Marks the socket as connected.
+   *
+   * @param secure Whether a TLS handshake follows.
+   */
+  public void tcpConnected(boolean secure) {
+    this.secure = secure;
+    tcpConnected = System.nanoTime();
+  }
+
+  /**
+   * Marks the connection as ready to send on, after any TLS handshake.
+   */
+  public void connected() {
+    connected = System.nanoTime();
+  }
+
+  /**
+   * Marks the start of sending, ignoring later marks when a request is retried.
+   */
+  public void sendStarted() {
+    if (sendStarted == 0) {
+      sendStarted = System.nanoTime();
+    }
+  }
+
+  public void sent() {
+    sent = System.nanoTime();
+  }
+
+  /**
+   * Marks the response headers as received.
+   */
+  public void firstByte() {
+    if (firstByte == 0) {
+      firstByte = System.nanoTime();
+    }
+  }
+
+  public void completed() {
+    completed = System.nanoTime();
+  }
+
+  /**
+   * Converts the marks into phase durations.
+   *
+   * @return The timings.
+   */
+  public RequestTimings timings() {
+    var end = completed != 0 ? completed : System.nanoTime();
+    var responseStart = firstByte != 0 ? firstByte : end;
+    var sendStart = sendStarted != 0 ? sendStarted : start;
+    var sendEnd = sent != 0 ? sent : sendStart;
+
+    var dns = RequestTimings.NOT_MEASURED;
+    var connect = RequestTimings.NOT_MEASURED;
+    var ssl = RequestTimings.NOT_MEASURED;
+    var setup = 0L;
+    if (connectStarted != 0 && connected != 0) {
+      var connectStart = connectStarted;
+      if (dnsResolved != 0) {
+        dns = dnsResolved - connectStarted;
+        connectStart = dnsResolved;
+      }
+      connect = connected - connectStart;
+      if (secure && tcpConnected != 0) {
+        ssl = connected - tcpConnected;
+      }
+      setup = connected - connectStarted;
+    }
+    var blocked = sendStarted != 0
+        ? Math.max(sendStart - start - setup, 0)
+        : RequestTimings.NOT_MEASURED;
+
+    return new RequestTimings(
+        blocked,
+        dns,
+        connect,
+        ssl,
+        sendEnd - sendStart,
+        Math.max(responseStart - sendEnd, 0),
+        end - responseStart);
+  }
+}
@@ -0,0 +1,101 @@
+package utils;
+
+import enums.Configuration;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import managers.ConfigurationManager;
+import managers.ScenarioManager;
+
+/**
+ * Output stream which buffers in memory until a threshold is reached, after which everything
+ * written so far, and everything written afterwards, goes to a temporary file.
+ */
+public class SpillingOutputStream extends OutputStream {
+
+  private static final String BODY_FOLDER_PATH = String.format("%s/%s",
+      ScenarioManager.SOURCE_FOLDER, "bodies");
+  private static final int DEFAULT_MEMORY_THRESHOLD = 5 * 1024 * 1024;
+  private final long threshold;
+  private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+  private OutputStream file;
+  private Path path;
+  private long size;
+
+  public SpillingOutputStream(long threshold) {
+    this.threshold = threshold;
+  }
+
+  /**
+   * Creates a stream using {@link Configuration#RESPONSE_BODY_MEMORY_THRESHOLD}.
+   *
+   * @return The stream.
+   */
+  public static SpillingOutputStream forResponseBody() {
+    return new SpillingOutputStream(ConfigurationManager.get().configuration()
+        .asInteger(Configuration.RESPONSE_BODY_MEMORY_THRESHOLD, DEFAULT_MEMORY_THRESHOLD));
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    if (file == null && size + length > threshold) {
+      spill();
+    }
+    if (file != null) {
+      file.write(bytes, offset, length);
+    } else {
+      memory.write(bytes, offset, length);
+    }
+    size += length;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (file != null) {
+      file.close();
+    }
+  }
+
+  public boolean isSpilled() {
+    return path != null;
+  }
+
+  /**
+   * The file holding the content when spilled.
+   *
+   * @return The path, or null when held in memory.
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * The content when held in memory.
+   *
+   * @return The bytes, or null when spilled.
+   */
+  public byte[] toByteArray() {
+    return memory == null ? null : memory.toByteArray();
+  }
+
+  public long size() {
+    return size;
+  }
+
+  private void spill() throws IOException {
+    Files.createDirectories(Path.of(BODY_FOLDER_PATH));
+    path = Files.createTempFile(Path.of(BODY_FOLDER_PATH), "body-", ".tmp");
+    file = new BufferedOutputStream(Files.newOutputStream(path));
+    memory.writeTo(file);
+    memory = null;
+  }
+
+}
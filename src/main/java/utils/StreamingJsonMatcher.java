@@ -0,0 +1,289 @@
+package utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the values at several JSON Paths in a single streaming pass over a JSON body, without
+ * building a tree of the whole body.
+ *
+ * <p>The paths are compiled together into one tree of property names and array indexes. Only the
+ * matched values are parsed, everything else is skipped, and reading stops as soon as every path
+ * has been found. Values are returned as {@link JsonPathUtils#read} returns them, so assertions
+ * behave the same whichever way the body was read. The one difference is an object with a
+ * duplicate key, where the first value is matched rather than the last.
+ *
+ * <p>Only definite paths are supported, made of {@code .name}, {@code ['name']} and {@code [0]}
+ * segments. Use {@link #supports(String)} to check a path before compiling it.
+ */
+public class StreamingJsonMatcher {
+
+  private final Node root = new Node();
+  private final List<String> paths;
+  private final int pathCount;
+
+  private StreamingJsonMatcher(Collection<String> jsonPaths) {
+    paths = List.copyOf(jsonPaths);
+    var count = 0;
+    for (var jsonPath : paths) {
+      var segments = parse(jsonPath);
+      if (segments == null) {
+        throw new IllegalArgumentException(
+            String.format("JSON Path %s cannot be matched while streaming", jsonPath));
+      }
+      var node = root;
+      for (var segment : segments) {
+        node = segment instanceof Integer index
+            ? node.indexes.computeIfAbsent(index, key -> new Node())
+            : node.properties.computeIfAbsent((String) segment, key -> new Node());
+      }
+      if (node.paths.isEmpty()) {
+        count++;
+      }
+      node.paths.add(jsonPath);
+    }
+    pathCount = count;
+  }
+
+  /**
+   * Compiles the JSON Paths into one matcher.
+   *
+   * @param jsonPaths The JSON Paths, each of which must be {@link #supports(String) supported}.
+   * @return The matcher.
+   * @throws IllegalArgumentException If a path is not supported.
+   */
+  public static StreamingJsonMatcher compile(Collection<String> jsonPaths) {
+    return new StreamingJsonMatcher(jsonPaths);
+  }
+
+  /**
+   * Whether the JSON Path can be matched while streaming.
+   *
+   * @param jsonPath The JSON Path.
+   * @return true if the path is definite and only made of property names and array indexes.
+   */
+  public static boolean supports(String jsonPath) {
+    return parse(jsonPath) != null;
+  }
+
+  /**
+   * Reads the values at the compiled paths.
+   *
+   * @param json The UTF-8 JSON body, closed by this method.
+   * @return The values keyed by JSON Path, in compile order, null where a path is not found.
+   * @throws IOException If the body cannot be read or is not valid JSON.
+   */
+  public Map<String, Object> match(InputStream json) throws IOException {
+    var pass = new Pass();
+    try (var reader = new JsonReader(new InputStreamReader(json, StandardCharsets.UTF_8))) {
+      walk(root, reader, pass);
+    }
+    var values = new LinkedHashMap<String, Object>();
+    for (var jsonPath : paths) {
+      values.put(jsonPath, pass.values.get(jsonPath));
+    }
+    return values;
+  }
+
+  /**
+   * Follows the reader through the value for the node, parsing the value once a path ends at
+   * the node and skipping everything no path leads into.
+   */
+  private void walk(Node node, JsonReader reader, Pass pass) throws IOException {
+    if (!node.paths.isEmpty()) {
+      if (pass.resolved.contains(node)) {
+        // A duplicate key, only the first occurrence is read so that matching can stop early
+        reader.skipValue();
+      } else {
+        pass.resolve(node, JsonParser.parseReader(reader));
+      }
+      return;
+    }
+
+    switch (reader.peek()) {
+      case BEGIN_OBJECT -> {
+        if (node.properties.isEmpty()) {
+          reader.skipValue();
+          return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+          var child = node.properties.get(reader.nextName());
+          if (child == null) {
+            reader.skipValue();
+          } else {
+            walk(child, reader, pass);
+            if (pass.isComplete()) {
+              return;
+            }
+          }
+        }
+        reader.endObject();
+      }
+      case BEGIN_ARRAY -> {
+        if (node.indexes.isEmpty()) {
+          reader.skipValue();
+          return;
+        }
+        reader.beginArray();
+        for (var index = 0; reader.hasNext(); index++) {
+          var child = node.indexes.get(index);
+          if (child == null) {
+            reader.skipValue();
+          } else {
+            walk(child, reader, pass);
+            if (pass.isComplete()) {
+              return;
+            }
+          }
+        }
+        reader.endArray();
+      }
+      default -> reader.skipValue();
+    }
+  }
+
+  /**
+   * Splits a JSON Path into property names and array indexes.
+   *
+   * @return The segments, or null if the path is not supported.
+   */
+  private static List<Object> parse(String jsonPath) {
+    if (jsonPath == null || !jsonPath.startsWith("$")) {
+      return null;
+    }
+    var segments = new ArrayList<Object>();
+    var i = 1;
+    while (i < jsonPath.length()) {
+      var c = jsonPath.charAt(i);
+      if (c == '.') {
+        var end = i + 1;
+        while (end < jsonPath.length()
+            && jsonPath.charAt(end) != '.'
+            && jsonPath.charAt(end) != '[') {
+          end++;
+        }
+        var name = jsonPath.substring(i + 1, end);
+        if (!isPropertyName(name)) {
+          return null;
+        }
+        segments.add(name);
+        i = end;
+      } else if (c == '[') {
+        var close = jsonPath.indexOf(']', i);
+        if (close < 0) {
+          return null;
+        }
+        var segment = jsonPath.substring(i + 1, close);
+        if (segment.length() >= 2
+            && (segment.charAt(0) == '\'' || segment.charAt(0) == '"')
+            && segment.charAt(segment.length() - 1) == segment.charAt(0)) {
+          var name = segment.substring(1, segment.length() - 1);
+          if (name.indexOf(segment.charAt(0)) >= 0 || name.indexOf('\\') >= 0) {
+            return null;
+          }
+          segments.add(name);
+        } else if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+          try {
+            segments.add(Integer.valueOf(segment));
+          } catch (NumberFormatException e) {
+            return null;
+          }
+        } else {
+          return null;
+        }
+        i = close + 1;
+      } else {
+        return null;
+      }
+    }
+    return segments;
+  }
+
+  private static boolean isPropertyName(String name) {
+    if (name.isEmpty()) {
+      return false;
+    }
+    for (var i = 0; i < name.length(); i++) {
+      switch (name.charAt(i)) {
+        case '*', '?', '(', ')', '\'', '"', '@', '$', ']', ',', ':', ' ' -> {
+          return false;
+        }
+        default -> {
+          // Part of a property name
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A position in the tree of compiled paths. Paths ending here are matched by the value at this
+   * position; children are matched inside it.
+   */
+  private static final class Node {
+
+    private final Map<String, Node> properties = new HashMap<>();
+    private final Map<Integer, Node> indexes = new HashMap<>();
+    private final List<String> paths = new ArrayList<>(1);
+  }
+
+  /**
+   * The values found during one pass over a body.
+   */
+  private final class Pass {
+
+    private final Map<String, Object> values = new HashMap<>();
+    private final Set<Node> resolved = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean isComplete() {
+      return resolved.size() == pathCount;
+    }
+
+    /**
+     * Records the value for the paths ending at the node, and for any paths which continue into
+     * the value.
+     */
+    private void resolve(Node node, JsonElement value) {
+      if (!node.paths.isEmpty() && resolved.add(node)) {
+        // Objects and arrays are copied the way JsonPath reads copy them, dropping null members
+        var unwrapped = value.isJsonObject() || value.isJsonArray()
+            ? JsonSerializer.gson().toJsonTree(value)
+            : JsonPathUtils.unwrap(value);
+        for (var jsonPath : node.paths) {
+          values.put(jsonPath, unwrapped);
+        }
+      }
+      if (value.isJsonObject()) {
+        var object = value.getAsJsonObject();
+        node.properties.forEach((name, child) -> {
+          if (object.has(name)) {
+            resolve(child, object.get(name));
+          }
+        });
+      } else if (value.isJsonArray()) {
+        var array = value.getAsJsonArray();
+        node.indexes.forEach((index, child) -> {
+          if (index < array.size()) {
+            resolve(child, array.get(index));
+          }
+        });
+      }
+    }
+  }
+
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import com.jayway.jsonpath.DocumentContext;
+import java.util.function.IntConsumer;
+import utils.JsonPathUtils;
+
+/**
+ * Times {@link JsonPathUtils} reads and writes against a large document, the way datatable steps
+ * use them: reading a value, then setting a deep property which does not exist yet.
+ *
+ * <p>Not run by the build. Run the main class on the test classpath after {@code mvn
+ * test-compile}, optionally passing the number of items in the document. Every new node set adds
+ * a new path, so that operation also measures compiling paths.
+ */
+public class JsonPathBenchmark {
+
+  private static final int DEFAULT_ITEMS = 5000;
+  // Feature files repeat a few paths, so most lookups hit the compiled path cache
+  private static final int DISTINCT_PATHS = 16;
+  private static final int WARMUP_ITERATIONS = 5000;
+  private static final int ITERATIONS = 5000;
+
+  private JsonPathBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    var items = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITEMS;
+    var document = JsonPathUtils.parse(largeDocument(items));
+    System.out.printf("Document of %d items, %d bytes%n", items, document.jsonString().length());
+
+    var step = Math.max(items / DISTINCT_PATHS, 1);
+    time("read leaf", document, i -> JsonPathUtils.read(
+        document, "$.items[" + i % DISTINCT_PATHS * step + "].details.price"));
+    time("exists", document, i -> JsonPathUtils.propertyExists(
+        document, "$.items[" + i % DISTINCT_PATHS * step + "].details.missing"));
+    time("set existing", document, i -> JsonPathUtils.setValue(
+        document, "$.items[" + i % DISTINCT_PATHS * step + "].details.price", i));
+    time("set 4 new nodes", document, i -> JsonPathUtils.setValue(
+        document, "$.created.node" + i + ".a.b.c", i));
+  }
+
+  private static void time(String name, DocumentContext document, IntConsumer operation) {
+    for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+      operation.accept(ITERATIONS + i);
+    }
+    var start = System.nanoTime();
+    for (var i = 0; i < ITERATIONS; i++) {
+      operation.accept(i);
+    }
+    var elapsed = System.nanoTime() - start;
+    System.out.printf(
+        "%-16s %10.1f us/op%n",
+        name,
+        elapsed / 1000.0 / ITERATIONS);
+    if (document.read("$.items") == null) {
+      throw new IllegalStateException("Benchmark corrupted the document");
+    }
+  }
+
+  private static String largeDocument(int items) {
+    var json = new StringBuilder("{\"currency\": \"USD\", \"items\": [");
+    for (var i = 0; i < items; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append(String.format(
+          "{\"id\": %d, \"name\": \"item %d\", \"details\": {\"price\": %d.5, \"tags\": "
+              + "[\"a\", \"b\", \"c\"], \"active\": true}}",
+          i, i, i));
+    }
+    return json.append("]}").toString();
+  }
+
+}
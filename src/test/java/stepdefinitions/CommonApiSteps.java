@@ -1,16 +1,18 @@
 package stepdefinitions;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import clients.PlaywrightHttpClient;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.JsonPath;
-import com.microsoft.playwright.APIResponse;
 import enums.HttpVerb;
 import enums.JsonPathOperation;
 import errors.ConfigurationError;
+import exceptions.UnexpectedStatusCodeException;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
@@ -20,10 +22,15 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import loggers.FileLogger;
-import net.minidev.json.JSONArray;
 import org.apache.hc.core5.http.HttpHeaders;
+import pojos.ApiResponse;
+import pojos.BurstResult;
+import pojos.FileBody;
+import pojos.PollResult;
+import pojos.RequestBody;
 import pojos.ResolvedString;
 import utils.JsonPathUtils;
 import utils.JsonSerializer;
@@ -36,12 +43,14 @@ import utils.StepDefinitionUtils;
 public class CommonApiSteps {
 
   private final PlaywrightHttpClient playwrightHttpClient;
-  private APIResponse apiResponse;
+  private ApiResponse apiResponse;
+  private BurstResult burstResult;
   private Map<String, String> headers;
-  private Object content;
+  private final RequestBody requestBody;
 
-  public CommonApiSteps(PlaywrightHttpClient playwrightHttpClient) {
+  public CommonApiSteps(PlaywrightHttpClient playwrightHttpClient, RequestBody requestBody) {
     this.playwrightHttpClient = playwrightHttpClient;
+    this.requestBody = requestBody;
   }
 
   @Given("A request body of {string} with JSON Paths")
@@ -49,18 +58,39 @@ public class CommonApiSteps {
       throws IOException {
     StepDefinitionUtils.validateResolvedStrings(dataRows, 3,
         new String[]{"field", "value", "operation"});
-    var json = new String(
-        Files.readAllBytes(Path.of(String.format("src/test/resources/requests/%s", fileName))));
+    var json = new String(Files.readAllBytes(requestFile(fileName)));
 
-    var document = transform(
-        json,
-        StepDefinitionUtils.resolvedStringsToStrings(dataRows));
-    this.content = document.json();
+    requestBody.setJson(JsonParser.parseString(json));
+    transform(requestBody.edit(), StepDefinitionUtils.resolvedStringsToStrings(dataRows));
   }
 
   @Given("a request body of")
   public void requestBody(String docString) {
-    this.content = JsonSerializer.fromJson(docString, JsonObject.class);
+    requestBody.setJson(JsonSerializer.fromJson(docString, JsonObject.class));
+  }
+
+  /**
+   * Sends a JSON file as the request body without parsing it, streamed from disk where the
+   * transport supports it.
+   */
+  @Given("a request body from file {string}")
+  public void requestBodyFromFile(String fileName) {
+    requestBodyFromFile(fileName, "application/json");
+  }
+
+  @Given("a request body from file {string} with content type {string}")
+  public void requestBodyFromFile(String fileName, String contentType) {
+    requestBody.setFile(new FileBody(requestFile(fileName), contentType, null));
+  }
+
+  @Given("a multipart request body with file {string} as field {string}")
+  public void multipartRequestBodyFromFile(String fileName, String fieldName) throws IOException {
+    var path = requestFile(fileName);
+    var contentType = Files.probeContentType(path);
+    requestBody.setFile(new FileBody(
+        path,
+        contentType != null ? contentType : "application/octet-stream",
+        fieldName));
   }
 
   @Given("I apply JSON Path transformations")
@@ -68,15 +98,7 @@ public class CommonApiSteps {
     StepDefinitionUtils.validateResolvedStrings(dataRows, 3,
         new String[]{"field", "value", "operation"});
 
-    if (this.content == null) {
-      throw new ConfigurationError("Step can only be applied once a body has been set");
-    }
-
-    var json = JsonSerializer.toJson(this.content);
-    var document = transform(
-        json,
-        StepDefinitionUtils.resolvedStringsToStrings(dataRows));
-    this.content = document.json();
+    transform(requestBody.edit(), StepDefinitionUtils.resolvedStringsToStrings(dataRows));
   }
 
   @When("I perform a HTTP {httpVerb} for route {string} and query params")
@@ -98,79 +120,114 @@ public class CommonApiSteps {
     this.apiResponse = send(httpVerb, route, null);
   }
 
-//  @When("I perform a HTTP {httpVerb} for route {string}, until it returns a {int} Response code")
-//  public void performHttpRequestUntilStatusCode(
-//      HttpVerb httpVerb,
-//      String route,
-//      int expectedStatusCode) {
-//    var timeout = ConfigurationManager.get().configuration()
-//        .asInteger(Configuration.API_RETRY_LOOP_TIMEOUT);
-//
-//    var request = client.buildRequest(baseRouteThreadLocal.get(), headers.get());
-//    var response = client.sendUntil(
-//        httpVerb,
-//        route,
-//        request,
-//        JsonSerializer.toJson(ScenarioContext.API_REQUEST.get(Object.class)),
-//        null,
-//        expectedStatusCode,
-//        timeout,
-//        10);
-//
-//    persistResponse(response);
-//  }
-
-//  /**
-//   * Loops until the expected response code and JSON body match the expected.
-//   */
-//  @When("I perform a HTTP {httpVerb} for route {string}, "
-//      + "until it returns a {int} Response code and JSON:")
-//  public void performHttpRequestUntilStatusCodeAndBody(
-//      HttpVerb httpVerb,
-//      String route,
-//      int expectedStatusCode,
-//      List<List<String>> dataRows) {
-//    var timeoutMs = ConfigurationManager.get().configuration()
-//        .asInteger(Configuration.API_RETRY_LOOP_TIMEOUT);
-//    var request = client.buildRequest(baseRouteThreadLocal.get(), headers.get());
-//
-//    var httpResponse = TimeLimit.of(Duration.ofMillis(timeoutMs))
-//        .poll(APIResponse.class, Duration.ofMillis(timeoutMs / 10),
-//            () -> {
-//              var response = client.send(
-//                  httpVerb,
-//                  route,
-//                  request,
-//                  JsonSerializer.toJson(
-//                      ScenarioContext.API_REQUEST.get(Object.class)),
-//                  null);
-//
-//              if (response.status() == expectedStatusCode) {
-//                var document = JsonPathUtils.parse(response.text());
-//                var actual = document.read(dataRows.getFirst().getFirst());
-//
-//                if (actual != null && actual.equals(dataRows.getFirst().get(1))) {
-//                  return response;
-//                }
-//              }
-//
-//              return null;
-//            },
-//            () -> new DataNotFoundException(
-//                "API did not returned either expected response code %s or expected data".formatted(
-//                    expectedStatusCode)));
-//
-//    persistResponse(httpResponse);
-//  }
+  @When("I perform a HTTP {httpVerb} for route {string}, until it returns a {int} Response code")
+  public void performHttpRequestUntilStatusCode(
+      HttpVerb httpVerb,
+      String route,
+      int expectedStatusCode) {
+    var result = sendUntil(
+        httpVerb,
+        route,
+        response -> response.status() == expectedStatusCode);
+
+    this.apiResponse = result.getResponse();
+    if (!result.isMatched()) {
+      throw new UnexpectedStatusCodeException(expectedStatusCode, apiResponse.status(), route);
+    }
+  }
+
+  /**
+   * Loops until the expected response code and JSON body match the expected.
+   */
+  @When("I perform a HTTP {httpVerb} for route {string}, "
+      + "until it returns a {int} Response code and JSON:")
+  public void performHttpRequestUntilStatusCodeAndBody(
+      HttpVerb httpVerb,
+      String route,
+      int expectedStatusCode,
+      List<List<ResolvedString>> dataRows) {
+    StepDefinitionUtils.validateResolvedStrings(dataRows, 2, new String[]{"field", "value"});
+    var expected = StepDefinitionUtils.resolvedStringsToStrings(dataRows);
+
+    var result = sendUntil(
+        httpVerb,
+        route,
+        response -> response.status() == expectedStatusCode && jsonMatches(response, expected));
+
+    this.apiResponse = result.getResponse();
+    if (apiResponse.status() != expectedStatusCode) {
+      throw new UnexpectedStatusCodeException(expectedStatusCode, apiResponse.status(), route);
+    }
+    assertTrue(
+        result.isMatched(),
+        () -> String.format(
+            "API did not return the expected data. %s. HTTP Response Body: %s",
+            result,
+            this.apiResponse.preview()));
+  }
+
+  @When("I perform {int} concurrent HTTP {httpVerb} for route {string}")
+  public void performConcurrentHttpRequests(int count, HttpVerb httpVerb, String route) {
+    requireJsonBody();
+    this.burstResult = playwrightHttpClient.sendConcurrently(
+        httpVerb,
+        route,
+        jsonBody(httpVerb),
+        null,
+        this.headers,
+        count);
+  }
+
+  @Then("All concurrent responses have Http Response code {int}")
+  public void allConcurrentResponseCodesAre(int httpResponseCode) {
+    var result = getBurstResult();
+    assertEquals(
+        result.getCompleted() + result.getErrors(),
+        result.countOf(httpResponseCode),
+        () -> String.format(
+            "Not all concurrent responses had HTTP Status Code %s: %s",
+            httpResponseCode,
+            result));
+  }
+
+  @Then("At least {int} concurrent responses have Http Response code {int}")
+  public void concurrentResponseCodesAre(int minimum, int httpResponseCode) {
+    var result = getBurstResult();
+    assertTrue(
+        result.countOf(httpResponseCode) >= minimum,
+        () -> String.format(
+            "Expected at least %s concurrent responses with HTTP Status Code %s: %s",
+            minimum,
+            httpResponseCode,
+            result));
+  }
+
+  @Then("p{int} latency is below {int} ms")
+  public void latencyPercentileIsBelow(int percentile, int maximumMs) {
+    var result = getBurstResult();
+    var actual = result.percentileMs(percentile);
+    assertTrue(
+        actual < maximumMs,
+        () -> String.format(
+            "p%s latency %.1f ms is not below %s ms: %s",
+            percentile,
+            actual,
+            maximumMs,
+            result));
+  }
 
   @Then("The http response contains JSON Paths")
   public void theHttpResponseContainsJsonPaths(List<List<ResolvedString>> dataRows) {
     StepDefinitionUtils.validateResolvedStrings(dataRows, 2, new String[]{"field", "value"});
     var contentType = this.apiResponse.headers().get(HttpHeaders.CONTENT_TYPE.toLowerCase());
     if (contentType.contains("application/json")) {
-      var document = JsonPath.parse(this.apiResponse.text());
+      var values = this.apiResponse.read(
+          dataRows.stream().map(row -> row.get(0).getValue()).toList());
       for (var row : dataRows) {
-        var field = document.read(row.get(0).getValue());
+        var field = values.get(row.get(0).getValue());
+        assertNotNull(
+            field,
+            String.format("JSON Path %s not found in response", row.get(0).getValue()));
         if (field instanceof Double) {
           assertEquals(Double.parseDouble(row.get(1).getValue()), (Double) field);
         } else {
@@ -179,7 +236,7 @@ public class CommonApiSteps {
       }
     } else {
       FileLogger.instance().get().severe(
-          String.format("Response was not in JSON format: %s", this.apiResponse.text()));
+          String.format("Response was not in JSON format: %s", this.apiResponse.preview()));
       throw new ConfigurationError("Response was not in JSON format");
 
     }
@@ -199,11 +256,11 @@ public class CommonApiSteps {
     assertEquals(
         httpResponseCode,
         actual,
-        String.format(
+        () -> String.format(
             "The HTTP Status Code %s does not match expected %s.  HTTP Response Body: %s",
             httpResponseCode,
             actual,
-            this.apiResponse.text()));
+            this.apiResponse.preview()));
   }
 
   @Then("The http response contains array with JSON Path {resolvedString} containing values")
@@ -211,42 +268,117 @@ public class CommonApiSteps {
       ResolvedString jsonPath,
       List<List<ResolvedString>> dataRows) {
     StepDefinitionUtils.validateResolvedStrings(dataRows, 1, new String[]{"JSON Path"});
-    var document = JsonPathUtils.parse(this.apiResponse.text());
+    var values = this.apiResponse.read(List.of(jsonPath.getValue()));
 
-    var array = (JSONArray) JsonPathUtils.read(document, jsonPath.getValue());
+    if (!(values.get(jsonPath.getValue()) instanceof JsonArray array)) {
+      throw new AssertionError(
+          String.format("JSON Path %s is not an array in response", jsonPath.getValue()));
+    }
     for (var row : dataRows) {
       var expectedValue = row.getFirst().getValue();
       assertTrue(
-          array.stream()
-              .anyMatch(item -> Objects.equals(item.toString(), expectedValue)),
+          array.asList().stream()
+              .anyMatch(item -> Objects.equals(
+                  item.isJsonPrimitive() ? item.getAsString() : item.toString(),
+                  expectedValue)),
           String.format(
               "Value %s was not found in array %s",
               expectedValue,
-              array.toJSONString()));
+              array));
     }
   }
 
   @Then("I print the HTTP request to console")
   public void printRequest() {
     FileLogger.instance().get()
-        .info("API Request: %s".formatted(
-            JsonSerializer.prettyPrint(JsonSerializer.toJson(this.content), true)));
+        .info("API Request: %s".formatted(requestBody));
+  }
+
+  private static Path requestFile(String fileName) {
+    return Path.of(String.format("src/test/resources/requests/%s", fileName));
   }
 
-  private APIResponse send(
+  private ApiResponse send(
       HttpVerb httpVerb,
       String route,
       Map<String, String> queryParams) {
+    if (requestBody.getFileBody() != null) {
+      return playwrightHttpClient.sendFile(
+          httpVerb,
+          route,
+          requestBody.getFileBody(),
+          queryParams,
+          this.headers);
+    }
     return playwrightHttpClient.send(
         httpVerb,
         route,
-        JsonSerializer.toJson(this.content),
+        jsonBody(httpVerb),
         queryParams,
         this.headers);
   }
 
-  public DocumentContext transform(String json, List<List<String>> dataRows) {
-    var document = JsonPathUtils.parse(json);
+  /**
+   * GET requests have no body, so the document is only serialised for other verbs.
+   */
+  private RequestBody jsonBody(HttpVerb httpVerb) {
+    return httpVerb == HttpVerb.GET ? null : requestBody;
+  }
+
+  private void requireJsonBody() {
+    if (requestBody.getFileBody() != null) {
+      throw new ConfigurationError("File request bodies can only be sent as a single request");
+    }
+  }
+
+  private BurstResult getBurstResult() {
+    if (this.burstResult == null) {
+      throw new ConfigurationError(
+          "Step can only be applied once concurrent requests have been sent");
+    }
+    return this.burstResult;
+  }
+
+  private PollResult sendUntil(
+      HttpVerb httpVerb,
+      String route,
+      Predicate<ApiResponse> condition) {
+    requireJsonBody();
+    return playwrightHttpClient.sendUntil(
+        httpVerb,
+        route,
+        jsonBody(httpVerb),
+        null,
+        this.headers,
+        condition);
+  }
+
+  private boolean jsonMatches(ApiResponse response, List<List<String>> expected) {
+    var contentType = response.headers().get(HttpHeaders.CONTENT_TYPE.toLowerCase());
+    if (contentType == null || !contentType.contains("application/json")) {
+      return false;
+    }
+    var values = response.read(expected.stream().map(List::getFirst).toList());
+    for (var row : expected) {
+      var actual = values.get(row.getFirst());
+      var matches = actual instanceof Double
+          ? Objects.equals(Double.parseDouble(row.get(1)), actual)
+          : actual != null && Objects.equals(row.get(1), actual.toString());
+      if (!matches) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies the JSON Path operations to the document in place.
+   *
+   * @param document The document to change.
+   * @param dataRows Rows of JSON Path, value and operation.
+   * @return The document.
+   */
+  public DocumentContext transform(DocumentContext document, List<List<String>> dataRows) {
     for (var row : dataRows) {
       var operation = JsonPathOperation.valueOf(row.get(2).toUpperCase());
       var existingValue = JsonPathUtils.read(document, row.get(0));
@@ -283,10 +415,8 @@ public class CommonApiSteps {
 
   @Given("I set JSON at JSON Path {string}")
   public void iSetJSONAtJSONPath(String jsonPath, String docString) {
-    var document = JsonPathUtils.parse(JsonSerializer.toJson(this.content));
     var json = JsonSerializer.fromJson(docString, JsonObject.class);
-    JsonPathUtils.setJsonObject(document, jsonPath, json);
-    this.content = document.json();
+    JsonPathUtils.setJsonObject(requestBody.edit(), jsonPath, json);
   }
 
 
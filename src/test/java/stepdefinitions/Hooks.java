@@ -2,6 +2,7 @@ package stepdefinitions;
 
 import enums.Configuration;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
 import io.cucumber.java.BeforeAll;
 import io.cucumber.java.Scenario;
@@ -12,9 +13,14 @@ import java.nio.file.Paths;
 import loggers.FileLogger;
 import managers.ApiRequestManager;
 import managers.ConfigurationManager;
+import managers.LoadStatisticsManager;
 import managers.PlaywrightManager;
 import managers.ScenarioManager;
+import managers.TransportManager;
+import managers.WarmUpManager;
 import pojos.CucumberScenario;
+import stubs.StubServer;
+import utils.JsonPathUtils;
 
 /**
  * Class containing Cucumber hooks for setup and teardown actions.
@@ -22,11 +28,31 @@ import pojos.CucumberScenario;
 public class Hooks {
 
   /**
-   * Sets up PlaywrightManager before all scenarios.
+   * Validates the configuration, starts the stub server, sets up PlaywrightManager and warms up
+   * connections before all scenarios. The load runner runs its own warm-up phase, so connections
+   * are only warmed up here for normal runs.
    */
   @BeforeAll
   public static void setup() {
+    ConfigurationManager.get().validate();
+    StubServer.start();
     PlaywrightManager.startPlaywright();
+    if (!LoadStatisticsManager.get().isActive()) {
+      WarmUpManager.warmUp();
+    }
+  }
+
+  /**
+   * Closes the HTTP transport, Playwright pool and stub server after all scenarios, unless the load
+   * runner owns their lifecycle.
+   */
+  @AfterAll
+  public static void teardown() {
+    if (!LoadStatisticsManager.get().isActive()) {
+      TransportManager.stop();
+      PlaywrightManager.stopPlaywright();
+      StubServer.stop();
+    }
   }
 
   /**
@@ -47,6 +73,8 @@ public class Hooks {
   @After()
   public void afterScenario(Scenario scenario) throws IOException {
     FileLogger.instance().get().info("Test Complete");
+    FileLogger.instance().get().fine(JsonPathUtils.cacheStatistics());
+    attachTimings(scenario);
     attachLog(scenario);
     attachHar(scenario);
     ScenarioManager.instance().teardown();
@@ -55,6 +83,14 @@ public class Hooks {
     FileLogger.instance().teardown();
   }
 
+  private void attachTimings(Scenario scenario) {
+    var summary = ApiRequestManager.get().timingSummary();
+    if (summary.getRequests() > 0) {
+      FileLogger.instance().get().info(String.format("Request timings: %s", summary));
+      scenario.attach(summary.toString(), "text/plain", "Request timings");
+    }
+  }
+
   private void attachLog(Scenario scenario) {
     if (ConfigurationManager.get().configuration().asFlag(
         Configuration.LOG_TO_FILE_ALWAYS, false)
@@ -0,0 +1,220 @@
+package stubs;
+
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import enums.Configuration;
+import enums.ReplayMode;
+import errors.ConfigurationError;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import loggers.FileLogger;
+import managers.ConfigurationManager;
+import managers.TransportManager;
+import utils.Compression;
+import utils.JsonSerializer;
+
+/**
+ * Embedded HTTP server standing in for the API at {@link Configuration#API_BASE_URL}, so that the
+ * suite runs, and the framework can be benchmarked, without a real backend.
+ *
+ * <p>Responses are matched by verb and route against {@code src/test/resources/stubs/stubs.json},
+ * first match wins. A route ending in {@code *} matches any path with that prefix. Bodies are read
+ * from files next to the stubs file and compressed once at startup, so serving a request only
+ * writes bytes already in memory. Each request is handled on its own virtual thread.
+ */
+public class StubServer {
+
+  private static final Path STUBS_FOLDER = Path.of("src/test/resources/stubs");
+  private static final String STUBS_FILE = "stubs.json";
+  private static final String ANY = "*";
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final byte[] NOT_FOUND_BODY =
+      "{\"error\": \"No stub matches the request\"}".getBytes(StandardCharsets.UTF_8);
+  private static StubServer instance;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final List<Stub> stubs;
+  private final long latencyMs;
+  private final int statusOverride;
+  private final LongAdder served = new LongAdder();
+  private final LongAdder unmatched = new LongAdder();
+
+  private StubServer(URI baseUrl) throws IOException {
+    var configuration = ConfigurationManager.get().configuration();
+    latencyMs = configuration.asInteger(Configuration.STUB_SERVER_LATENCY, 0);
+    statusOverride = configuration.asInteger(Configuration.STUB_SERVER_STATUS, 0);
+    stubs = loadStubs();
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server = HttpServer.create(new InetSocketAddress(baseUrl.getHost(), baseUrl.getPort()), 0);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  /**
+   * Starts the server on the host and port of {@link Configuration#API_BASE_URL}, unless disabled
+   * by {@link Configuration#STUB_SERVER}, already running or not needed as responses are replayed.
+   *
+   * @throws ConfigurationError If the base URL is not local or its port is already in use.
+   */
+  public static synchronized void start() {
+    if (instance != null
+        || !ConfigurationManager.get().configuration().asFlag(Configuration.STUB_SERVER, false)
+        || TransportManager.replayMode() == ReplayMode.REPLAY) {
+      return;
+    }
+    var baseUrl = URI.create(
+        ConfigurationManager.get().environment().asRequiredString(Configuration.API_BASE_URL));
+    if (!"localhost".equalsIgnoreCase(baseUrl.getHost())
+        && !"127.0.0.1".equals(baseUrl.getHost())) {
+      throw new ConfigurationError(String.format(
+          "The stub server can only stand in for a local apiBaseURL, not %s. "
+              + "Set stubServer=false to test against a real backend.",
+          baseUrl));
+    }
+    try {
+      instance = new StubServer(baseUrl);
+    } catch (IOException e) {
+      throw new ConfigurationError(String.format(
+          "Could not start the stub server on %s. Set stubServer=false if a backend is "
+              + "already listening there.",
+          baseUrl), e);
+    }
+    FileLogger.instance().get().info(String.format(
+        "Stub server listening on %s with %d stub(s)",
+        baseUrl,
+        instance.stubs.size()));
+  }
+
+  /**
+   * Stops the server, if running.
+   */
+  public static synchronized void stop() {
+    if (instance != null) {
+      instance.server.stop(0);
+      instance.executor.close();
+      FileLogger.instance().get().info(String.format(
+          "Stub server: %d request(s) served, %d unmatched",
+          instance.served.sum(),
+          instance.unmatched.sum()));
+      instance = null;
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      try (var body = exchange.getRequestBody()) {
+        body.transferTo(OutputStream.nullOutputStream());
+      }
+      var stub = match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+      var delay = latencyMs + (stub != null ? stub.latencyMs() : 0);
+      if (delay > 0) {
+        Thread.sleep(delay);
+      }
+
+      byte[] response;
+      var status = HTTP_NOT_FOUND;
+      var headers = exchange.getResponseHeaders();
+      headers.set("Content-Type", "application/json");
+      if (stub == null) {
+        unmatched.increment();
+        response = NOT_FOUND_BODY;
+      } else {
+        status = stub.status();
+        var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains(Compression.GZIP)) {
+          headers.set("Content-Encoding", Compression.GZIP);
+          response = stub.gzipBody();
+        } else {
+          response = stub.body();
+        }
+      }
+      if (statusOverride > 0) {
+        status = statusOverride;
+      }
+      served.increment();
+
+      if ("HEAD".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(status, -1);
+      } else {
+        exchange.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+        exchange.getResponseBody().write(response);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Stub match(String method, String path) {
+    for (var stub : stubs) {
+      if (stub.matches(method, path)) {
+        return stub;
+      }
+    }
+    return null;
+  }
+
+  private static List<Stub> loadStubs() throws IOException {
+    List<StubDefinition> definitions = JsonSerializer.fromJson(
+        Files.readString(STUBS_FOLDER.resolve(STUBS_FILE)),
+        new TypeToken<List<StubDefinition>>() { });
+    var loaded = new ArrayList<Stub>();
+    for (var definition : definitions) {
+      var body = definition.body() == null
+          ? new byte[0]
+          : Files.readAllBytes(STUBS_FOLDER.resolve(definition.body()));
+      loaded.add(new Stub(
+          definition.method() == null ? ANY : definition.method().toUpperCase(Locale.ROOT),
+          definition.route() == null ? ANY : definition.route(),
+          definition.status() > 0 ? definition.status() : HTTP_OK,
+          definition.latencyMs(),
+          body,
+          Compression.gzip(body)));
+    }
+    return List.copyOf(loaded);
+  }
+
+  /**
+   * A stub as written in the stubs file. The body is a path relative to the stubs file.
+   */
+  private record StubDefinition(
+      String method,
+      String route,
+      int status,
+      long latencyMs,
+      String body) {
+
+  }
+
+  private record Stub(
+      String method,
+      String route,
+      int status,
+      long latencyMs,
+      byte[] body,
+      byte[] gzipBody) {
+
+    private boolean matches(String requestMethod, String path) {
+      if (!ANY.equals(method) && !method.equals(requestMethod)) {
+        return false;
+      }
+      return route.endsWith(ANY)
+          ? path.startsWith(route.substring(0, route.length() - 1))
+          : route.equals(path);
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+package testrunner;
+
+import static io.cucumber.core.options.Constants.PLUGIN_PUBLISH_QUIET_PROPERTY_NAME;
+
+import enums.Configuration;
+import io.cucumber.core.cli.Main;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import managers.ConfigurationManager;
+import managers.LoadStatisticsManager;
+import managers.PlaywrightManager;
+import managers.TransportManager;
+import org.junit.jupiter.api.Test;
+import stubs.StubServer;
+
+/**
+ * Load-generation mode. Replays the scenarios selected by {@code loadTags} as virtual users at a
+ * target arrival rate, using the same glue as {@link RunCucumberTest}.
+ *
+ * <p>Each arrival runs the selected scenarios once. After {@code loadWarmup} seconds, results are
+ * recorded for {@code loadDuration} seconds, then latency histograms per route and per scenario
+ * are printed and written under {@code target/load}. Log files and HAR capture are turned off.
+ *
+ * <p>Not run by default, start with {@code mvn test -Dtest=LoadTestRunner -DloadTags=@smoke}.
+ */
+public class LoadTestRunner {
+
+  private static final String RAMP = "ramp";
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+  @Test
+  public void run() throws IOException {
+    disableArtifacts();
+    ConfigurationManager.get().validate();
+    var configuration = ConfigurationManager.get().configuration();
+    var tags = configuration.asRequiredString(Configuration.LOAD_TAGS);
+    var targetRate = configuration.asRequiredInteger(Configuration.LOAD_ARRIVAL_RATE);
+    var startRate = RAMP.equalsIgnoreCase(configuration.asString(Configuration.LOAD_PROFILE))
+        ? configuration.asRequiredInteger(Configuration.LOAD_RAMP_START_RATE)
+        : targetRate;
+    var warmup = configuration.asRequiredInteger(Configuration.LOAD_WARMUP);
+    var duration = configuration.asRequiredInteger(Configuration.LOAD_DURATION);
+    var virtualUsers = new Semaphore(
+        configuration.asRequiredInteger(Configuration.LOAD_MAX_VIRTUAL_USERS));
+    var dropped = new LongAdder();
+
+    var statistics = LoadStatisticsManager.get();
+    statistics.start();
+    StubServer.start();
+    PlaywrightManager.startPlaywright();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      generate(executor, virtualUsers, dropped, tags, warmup, startRate, startRate);
+      statistics.startRecording();
+      generate(executor, virtualUsers, dropped, tags, duration, startRate, targetRate);
+    } finally {
+      statistics.stop();
+      TransportManager.stop();
+      PlaywrightManager.stopPlaywright();
+      StubServer.stop();
+    }
+
+    statistics.printReport(System.out);
+    System.out.printf("Dropped arrivals (all virtual users busy): %d%n", dropped.sum());
+    System.out.printf("Histograms written to %s%n", statistics.writeHistograms());
+  }
+
+  /**
+   * Starts scenario runs at a rate moving linearly from {@code fromRate} to {@code toRate}.
+   */
+  private void generate(
+      ExecutorService executor,
+      Semaphore virtualUsers,
+      LongAdder dropped,
+      String tags,
+      int seconds,
+      int fromRate,
+      int toRate) {
+    var start = System.nanoTime();
+    var length = (long) (seconds * NANOS_PER_SECOND);
+    var next = start;
+    while (next - start < length) {
+      sleepUntil(next);
+      if (virtualUsers.tryAcquire()) {
+        executor.submit(() -> {
+          try {
+            runScenarios(tags);
+          } finally {
+            virtualUsers.release();
+          }
+        });
+      } else {
+        dropped.increment();
+      }
+      var fraction = (double) (next - start) / length;
+      var rate = Math.max(fromRate + (toRate - fromRate) * fraction, 1.0 / seconds);
+      next += (long) (NANOS_PER_SECOND / rate);
+    }
+  }
+
+  private void runScenarios(String tags) {
+    Main.run(
+        new String[]{
+            "--glue", "stepdefinitions",
+            "--tags", tags,
+            "--plugin", "plugins.LoadStatisticsPlugin",
+            "--no-summary",
+            "classpath:features"},
+        Thread.currentThread().getContextClassLoader());
+  }
+
+  private void sleepUntil(long nanoTime) {
+    var delay = nanoTime - System.nanoTime();
+    if (delay > 0) {
+      try {
+        Thread.sleep(delay / 1000_000, (int) (delay % 1000_000));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted generating load", e);
+      }
+    }
+  }
+
+  /**
+   * Per-scenario log files and HAR capture would skew the results, so they are turned off and the
+   * configuration is resolved again to pick up the change.
+   */
+  private void disableArtifacts() {
+    System.setProperty(Configuration.LOG_TO_FILE_ALWAYS.getProperty(), "false");
+    System.setProperty(Configuration.LOG_TO_FILE_ON_FAILURE.getProperty(), "false");
+    System.setProperty(Configuration.CAPTURE_HAR.getProperty(), "false");
+    System.setProperty(Configuration.MINIMUM_LOG_LEVEL_CONSOLE.getProperty(), "WARNING");
+    System.setProperty(PLUGIN_PUBLISH_QUIET_PROPERTY_NAME, "true");
+    ConfigurationManager.reload();
+  }
+
+}
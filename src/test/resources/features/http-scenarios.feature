@@ -51,3 +51,39 @@ Feature: Backend test examples
     And The http response contains JSON Paths
       | $.success | true |
 
+  Scenario: Test 3
+
+    Given a request body of
+    """json
+      {
+         "produce": "Cucumbers"
+      }
+      """
+    When I perform a HTTP POST for route "base/route", until it returns a 200 Response code and JSON:
+      | $.success | true |
+    Then The Http Response code is 200
+
+  Scenario: Test 4
+
+    Given a request body of
+    """json
+      {
+         "produce": "Cucumbers"
+      }
+      """
+    When I perform 20 concurrent HTTP POST for route "base/route"
+    Then All concurrent responses have Http Response code 200
+    And p95 latency is below 2000 ms
+
+  Scenario: Test 5
+
+    Given a request body from file "example.json"
+    Then I print the HTTP request to console
+    Then I perform a HTTP POST for route "base/route"
+    Then The Http Response code is 200
+
+  Scenario: Test 6
+
+    Given a multipart request body with file "example.json" as field "upload"
+    Then I perform a HTTP PUT for route "base/route"
+    Then The Http Response code is 200